@@ -0,0 +1,45 @@
+package com.example.taskapp.bench;
+
+import java.util.UUID;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.taskapp.TaskAppApplication;
+
+/** ベンチマーク用にWebサーバなしでアプリを起動する。DBはトライアルごとに別のインメモリH2 */
+final class BenchApp {
+
+    // description は 200 文字、title の 1 割に "report" を含める（q 検索のヒット率 10%）
+    private static final String SEED_SQL = """
+            INSERT INTO tasks (title, description, status, due_date, version, created_at, updated_at)
+            SELECT 'task ' || X || CASE WHEN MOD(X, 10) = 0 THEN ' report' ELSE '' END,
+                   REPEAT('d', 200),
+                   CASE MOD(X, 3) WHEN 0 THEN 'OPEN' WHEN 1 THEN 'DOING' ELSE 'DONE' END,
+                   NULL, 0,
+                   DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'),
+                   DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00')
+            FROM SYSTEM_RANGE(1, ?)
+            """;
+
+    private BenchApp() {}
+
+    /** properties は追加のアプリ設定（"key=value"） */
+    static ConfigurableApplicationContext start(String... properties) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(TaskAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .properties(properties)
+                .run();
+    }
+
+    static void seed(ConfigurableApplicationContext ctx, int rows) {
+        ctx.getBean(JdbcTemplate.class).update(SEED_SQL, rows);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.taskapp.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.taskapp.dto.TaskPageBody;
+import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskField;
+import com.example.taskapp.model.TaskStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * 一覧応答（size 件、description は descLength 文字）の直列化＋gzip 圧縮の CPU 時間と転送量。
+ * identity: 直列化のみ（非圧縮の応答）、gzip: 直列化＋圧縮（Tomcat の応答圧縮は level=6 相当）、
+ * cachedHit: 圧縮済みページのキャッシュのヒット（本文は作らない）。
+ * 1 操作あたりのバイト数は補助カウンタ rawBytes / wireBytes（単位は #、-rf json では secondaryMetrics）に出る。
+ * server.compression.min-response-size と taskapp.compression.page-cache.level の選定に使う。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskCompressionBenchmark {
+
+    @Param({ "10", "100" })
+    int size;
+
+    @Param({ "0", "1000" })
+    int descLength;
+
+    @Param({ "1", "6", "9" })
+    int level;
+
+    private TaskPageBody body;
+    private ObjectMapper objectMapper;
+    private byte[] cached;
+    private int rawLength;
+
+    /** 1 操作あたりの本文の大きさ（非圧縮・送出）。毎回同じ値を代入するため、反復ごとの値がそのまま B/op になる */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Bytes {
+        public long rawBytes;
+        public long wireBytes;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        // 同一文字の繰り返しは圧縮されすぎるため、語の並びをずらした本文にする
+        String[] words = { "review", "deploy", "fix", "customer", "report", "meeting", "backlog", "release",
+                "invoice", "schedule", "design", "update", "ticket", "migrate", "support", "budget" };
+        Random random = new Random(42);
+        Instant now = Instant.parse("2025-01-01T00:00:00.123456Z");
+        List<Task> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            StringBuilder desc = new StringBuilder(descLength + 16);
+            while (desc.length() < descLength) desc.append(words[random.nextInt(words.length)]).append(' ');
+            desc.setLength(descLength);
+            rows.add(new Task((long) i, "task " + i, desc.toString(), TaskStatus.values()[i % 3],
+                    LocalDate.of(2025, 1, 1).plusDays(i), (long) i, now, now));
+        }
+        body = new TaskPageBody(rows, 0, size, 1000L, true, "exact", TaskField.ALL);
+        byte[] json = objectMapper.writeValueAsBytes(body);
+        rawLength = json.length;
+        cached = gzip(json, level);
+    }
+
+    @Benchmark
+    public byte[] identity(Bytes bytes) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(body);
+        bytes.rawBytes = json.length;
+        bytes.wireBytes = json.length;
+        return json;
+    }
+
+    @Benchmark
+    public byte[] gzip(Bytes bytes) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(body);
+        byte[] gz = gzip(json, level);
+        bytes.rawBytes = json.length;
+        bytes.wireBytes = gz.length;
+        return gz;
+    }
+
+    @Benchmark
+    public byte[] cachedHit(Bytes bytes) {
+        bytes.rawBytes = rawLength;
+        bytes.wireBytes = cached.length;
+        return cached;
+    }
+
+    private static byte[] gzip(byte[] data, int level) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gz.write(data);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.taskapp.bench;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskStatus;
+import com.example.taskapp.service.BatchItemResult;
+import com.example.taskapp.service.TaskBatchService;
+import com.example.taskapp.service.TaskService;
+
+/**
+ * 100 件の登録を 1 件ずつ（TaskService.create、1 件ごとにトランザクション。POST /api/tasks と同じ経路）と
+ * JDBC バッチ（TaskBatchService.createAll、1 トランザクション）で比較する。結果は 1 件あたり。
+ * どちらも変更ログ・件数カウンタ・索引の更新を含む。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskInsertBenchmark {
+
+    private static final int N = 100;
+
+    private ConfigurableApplicationContext ctx;
+    private TaskService service;
+    private TaskBatchService batchService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = BenchApp.start();
+        service = ctx.getBean(TaskService.class);
+        batchService = ctx.getBean(TaskBatchService.class);
+    }
+
+    // 件数の増加で索引更新コストが変わらないよう、イテレーションごとに空にする
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+        jdbc.update("DELETE FROM task_terms");
+        jdbc.update("DELETE FROM task_changes");
+        jdbc.update("DELETE FROM tasks");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public void singleInserts() {
+        for (Task t : newTasks()) {
+            service.create(t);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public List<BatchItemResult> batchedInserts() {
+        return batchService.createAll(newTasks());
+    }
+
+    private static List<Task> newTasks() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        List<Task> tasks = new ArrayList<>(N);
+        for (int i = 0; i < N; i++) {
+            tasks.add(new Task(null, "bench " + i, "description " + i, TaskStatus.OPEN, null, 0L, now, now));
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.taskapp.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskSearchCondition;
+import com.example.taskapp.model.TaskStatus;
+import com.example.taskapp.service.PageResult;
+import com.example.taskapp.service.TaskService;
+import com.example.taskapp.service.TotalMode;
+
+/**
+ * TaskService.search（先頭ページ 20 件）のテーブル件数・条件・件数モード・キーワード検索方式別の所要時間。
+ * 100 万件の場合は投入に時間がかかるため TaskSearchLargeBenchmark に分けている（既定の実行からは除外）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskSearchBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    int rows;
+
+    /** none / status / q / status_q */
+    @Param({ "none", "status", "q", "status_q" })
+    String filter;
+
+    @Param({ "exact", "none" })
+    String total;
+
+    /** taskapp.search.text-backend（like / index） */
+    @Param({ "like", "index" })
+    String textBackend;
+
+    private ConfigurableApplicationContext ctx;
+    private TaskService service;
+    private TaskSearchCondition cond;
+    private TotalMode totalMode;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = start(rows, textBackend);
+        service = ctx.getBean(TaskService.class);
+        cond = condition(filter);
+        totalMode = TotalMode.from(total);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public PageResult<Task> search() {
+        return service.search(cond, 0, 20, totalMode);
+    }
+
+    // 投入は SQL で直接行うため、index では task_terms を作り直す
+    static ConfigurableApplicationContext start(int rows, String textBackend) {
+        ConfigurableApplicationContext ctx = BenchApp.start("taskapp.search.text-backend=" + textBackend);
+        BenchApp.seed(ctx, rows);
+        TaskService service = ctx.getBean(TaskService.class);
+        if ("index".equals(textBackend)) service.rebuildSearchIndex();
+        return ctx;
+    }
+
+    static TaskSearchCondition condition(String filter) {
+        TaskSearchCondition.TaskSearchConditionBuilder b = TaskSearchCondition.builder().q("");
+        if (filter.startsWith("status")) b.status(TaskStatus.OPEN);
+        if (filter.endsWith("q")) b.q("report");
+        return b.build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.taskapp.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskSearchCondition;
+import com.example.taskapp.service.PageResult;
+import com.example.taskapp.service.TaskService;
+import com.example.taskapp.service.TotalMode;
+
+/**
+ * TaskSearchBenchmark の 100 万件版。LIKE の全件走査と転置インデックスの差が最も開くキーワード検索に絞る。
+ * 投入と索引の再構築に時間がかかるため既定の実行（-Pjmh）からは除外している。
+ * 実行: mvn -Pjmh -DskipTests verify -Djmh.include=TaskSearchLargeBenchmark -Djmh.exclude=^$
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TaskSearchLargeBenchmark {
+
+    @Param({ "1000000" })
+    int rows;
+
+    /** q / status_q */
+    @Param({ "q", "status_q" })
+    String filter;
+
+    @Param({ "exact", "none" })
+    String total;
+
+    /** taskapp.search.text-backend（like / index） */
+    @Param({ "like", "index" })
+    String textBackend;
+
+    private ConfigurableApplicationContext ctx;
+    private TaskService service;
+    private TaskSearchCondition cond;
+    private TotalMode totalMode;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = TaskSearchBenchmark.start(rows, textBackend);
+        service = ctx.getBean(TaskService.class);
+        cond = TaskSearchBenchmark.condition(filter);
+        totalMode = TotalMode.from(total);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public PageResult<Task> search() {
+        return service.search(cond, 0, 20, totalMode);
+    }
+}
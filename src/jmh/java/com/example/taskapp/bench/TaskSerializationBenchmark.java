@@ -0,0 +1,81 @@
+package com.example.taskapp.bench;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.taskapp.dto.PageResponse;
+import com.example.taskapp.dto.TaskPageBody;
+import com.example.taskapp.dto.TaskResp;
+import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskField;
+import com.example.taskapp.model.TaskStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * 100 件の一覧応答の直列化。
+ * pageResponse: Task → TaskResp.from → PageResponse → Jackson（リフレクション）
+ * taskPageBody: Task から JsonGenerator へ直接（一覧APIの現行経路）。summaryFields は id,title,status のみ
+ * 割り当て量は -prof gc の gc.alloc.rate.norm（B/op）で比較する。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskSerializationBenchmark {
+
+    private static final Set<TaskField> SUMMARY = EnumSet.of(TaskField.ID, TaskField.TITLE, TaskField.STATUS);
+
+    private List<Task> rows;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        Instant now = Instant.parse("2025-01-01T00:00:00.123456Z");
+        rows = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            rows.add(new Task((long) i, "task " + i, "d".repeat(200), TaskStatus.values()[i % 3],
+                    LocalDate.of(2025, 1, 1).plusDays(i), (long) i, now, now));
+        }
+    }
+
+    @Benchmark
+    public byte[] pageResponse() throws JsonProcessingException {
+        List<TaskResp> content = rows.stream().map(TaskResp::from).toList();
+        return objectMapper.writeValueAsBytes(new PageResponse<>(content, 0, 100, 1000L, true, "exact"));
+    }
+
+    @Benchmark
+    public byte[] taskPageBody() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new TaskPageBody(rows, 0, 100, 1000L, true, "exact", TaskField.ALL));
+    }
+
+    @Benchmark
+    public byte[] taskPageBodySummaryFields() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new TaskPageBody(rows, 0, 100, 1000L, true, "exact", SUMMARY));
+    }
+}
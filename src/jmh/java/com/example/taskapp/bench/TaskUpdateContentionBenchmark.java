@@ -0,0 +1,100 @@
+package com.example.taskapp.bench;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.taskapp.exception.OptimisticLockException;
+import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskStatus;
+import com.example.taskapp.service.TaskService;
+import com.example.taskapp.service.TaskUpdateCoordinator;
+
+/**
+ * 複数スレッドが少数の行を「GET → 1項目だけ変えて PUT（If-Match = 取得した version）」で奪い合う。
+ * hotRows が少ないほど競合が増える。mode=striped（ストライプロック＋項目単位マージ）と none を比較し、
+ * 成功・競合（409 相当）の件数を副カウンタ（ops/s 換算）で出力する。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class TaskUpdateContentionBenchmark {
+
+    @Param({ "1", "16", "256" })
+    int hotRows;
+
+    @Param({ "none", "striped" })
+    String mode;
+
+    private ConfigurableApplicationContext ctx;
+    private TaskService service;
+    private TaskUpdateCoordinator coordinator;
+    private long[] ids;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcome {
+        public long updated;
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            updated = 0;
+            conflicts = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = BenchApp.start("taskapp.contention.mode=" + mode);
+        service = ctx.getBean(TaskService.class);
+        coordinator = ctx.getBean(TaskUpdateCoordinator.class);
+        ids = new long[hotRows];
+        for (int i = 0; i < hotRows; i++) {
+            ids[i] = service.create(Task.builder().title("hot " + i).status(TaskStatus.OPEN).build()).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public void update(Outcome outcome) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long id = ids[rnd.nextInt(ids.length)];
+        Task read = service.get(id);
+        Task change = new Task(id, read.getTitle(), read.getDescription(), read.getStatus(), read.getDueDate(),
+                null, null, null);
+        switch (rnd.nextInt(3)) {
+            case 0 -> change.setTitle("title " + rnd.nextInt(1000));
+            case 1 -> change.setStatus(TaskStatus.values()[rnd.nextInt(3)]);
+            default -> change.setDueDate(LocalDate.of(2030, 1, 1).plusDays(rnd.nextInt(365)));
+        }
+        try {
+            coordinator.update(id, read.getVersion(), change);
+            outcome.updated++;
+        } catch (OptimisticLockException e) {
+            outcome.conflicts++;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.taskapp.controller;
+
+import java.io.IOException;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * server.compression.min-response-size を JSON 応答にも効かせるためのフィルタ。
+ * Tomcat は Content-Length が分からない応答を大きさによらず圧縮するが、HttpMessageConverter は書き込み後に
+ * flush するため、小さな応答もヘッダ確定時点で長さが未定（chunked）になる。
+ * ここで flush を握りつぶすと、応答バッファ（既定 8KB）に収まる本文は close 時に Tomcat が Content-Length を設定し、
+ * 閾値未満なら圧縮されない。バッファを超える本文はその時点で送出が始まり圧縮される（閾値はバッファより小さくすること）。
+ * SSE・StreamingResponseBody は Spring が ShallowEtagHeaderFilter.disableContentCaching で印を付けるため、
+ * その要求の flush はそのまま通す（イベントを即時に届ける）。
+ */
+@Component
+class CompressionThresholdFilter extends OncePerRequestFilter {
+
+    // ShallowEtagHeaderFilter.disableContentCaching が設定する属性
+    private static final String STREAMING_ATTRIBUTE = ShallowEtagHeaderFilter.class.getName() + ".STREAMING";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(request, new DeferredFlushResponse(request, response));
+    }
+
+    private static final class DeferredFlushResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+        private ServletOutputStream out;
+
+        DeferredFlushResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        private boolean streaming() {
+            return request.getAttribute(STREAMING_ATTRIBUTE) != null;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (streaming()) super.flushBuffer();
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (out == null) out = new DeferredFlushStream(super.getOutputStream());
+            return out;
+        }
+
+        private final class DeferredFlushStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            DeferredFlushStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                delegate.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                delegate.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (streaming()) delegate.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                delegate.setWriteListener(listener);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.taskapp.controller;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.taskapp.exception.ServiceBusyException;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * API リクエストの同時実行数をコネクションプールの大きさ（既定 spring.datasource.hikari.maximum-pool-size）に制限する。
+ * 仮想スレッドではリクエスト数に上限がないため、制限しないとプールのチェックアウト待ちに大量に並び、
+ * connection-timeout を超えた分が一斉に失敗する。ここで先着順に待たせ、taskapp.admission.timeout 内に
+ * 枠が空かなければ 503 とする（プールの connection-timeout はバックグラウンド処理も含めた最後の歯止め）。
+ * 枠はハンドラの同期処理の間だけ保持する。SSE は接続を使わずに待つため非同期処理の開始時に枠を返す。
+ * ストリーミング出力（StreamingResponseBody、/export）は出力の間ずっと接続を使うため、出力の完了まで枠を保持する。
+ */
+@Component
+class ConnectionAdmission implements AsyncHandlerInterceptor, WebMvcConfigurer {
+
+    private static final String PERMIT_ATTRIBUTE = ConnectionAdmission.class.getName() + ".PERMIT";
+
+    private final Semaphore permits;
+    private final long timeoutMillis;
+
+    ConnectionAdmission(
+            @Value("${taskapp.admission.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+            @Value("${taskapp.admission.timeout:3s}") Duration timeout) {
+        this.permits = new Semaphore(Math.max(1, maxConcurrent), true);
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this).addPathPatterns("/api/**");
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // 非同期処理の結果を返すための再ディスパッチでは取り直さない
+        if (request.getDispatcherType() == DispatcherType.ASYNC) return true;
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) throw new ServiceBusyException("混雑しています。時間をおいて再試行してください");
+        request.setAttribute(PERMIT_ATTRIBUTE, new AtomicBoolean());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!streams(handler)) {
+            release(request);
+            return;
+        }
+        // 出力の完了（タイムアウト・切断を含む）で返す。完了後の再ディスパッチの afterCompletion とは先に来た方が返す
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                release(request);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    private void release(HttpServletRequest request) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof AtomicBoolean released && released.compareAndSet(false, true)) {
+            permits.release();
+        }
+    }
+
+    // 戻り値が StreamingResponseBody（ResponseEntity で包んだものを含む）のハンドラ
+    private static boolean streams(Object handler) {
+        if (!(handler instanceof HandlerMethod method)) return false;
+        ResolvableType type = ResolvableType.forMethodParameter(method.getReturnType());
+        Class<?> body = ResponseEntity.class.isAssignableFrom(type.toClass()) ? type.getGeneric(0).resolve() : type.resolve();
+        return body != null && StreamingResponseBody.class.isAssignableFrom(body);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.taskapp.controller;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+import com.example.taskapp.exception.BadRequestException;
+import com.example.taskapp.model.Task;
+
+/**
+ * ETag の生成と If-Match / If-None-Match の解釈。
+ * 単一リソースは version（PUT 応答は数値・非引用、GET 応答は Spring が引用符を付与するため "n"）、
+ * 一覧は結果集合から作る弱いETag（W/"..."）。
+ */
+final class ETags {
+
+    private ETags() {}
+
+    static String of(long version) {
+        return String.valueOf(version);
+    }
+
+    static String quoted(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /** If-Match から version を取り出す。1 / "1" / W/"1" のいずれも受け付ける */
+    static long parseVersion(String ifMatch) {
+        try {
+            return Long.parseLong(opaque(ifMatch));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("If-Matchの形式が不正です: " + ifMatch);
+        }
+    }
+
+    /** 一覧の弱いETag。行の (id, version) 列とページ情報から求める */
+    static String weak(List<Task> rows, Object... pageInfo) {
+        MessageDigest md = sha256();
+        ByteBuffer buf = ByteBuffer.allocate(16);
+        for (Task t : rows) {
+            buf.clear();
+            buf.putLong(t.getId()).putLong(t.getVersion());
+            md.update(buf.array());
+        }
+        for (Object o : pageInfo) {
+            md.update((byte) '|');
+            md.update(String.valueOf(o).getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] digest = md.digest();
+        return "W/\"" + HexFormat.of().formatHex(digest, 0, 12) + "\"";
+    }
+
+    /** If-None-Match の弱い比較（W/ と引用符を無視、カンマ区切り・* に対応） */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        String target = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || opaque(c).equals(target)) return true;
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        String t = tag.trim();
+        if (t.startsWith("W/")) t = t.substring(2);
+        if (t.length() >= 2 && t.startsWith("\"") && t.endsWith("\"")) t = t.substring(1, t.length() - 1);
+        return t;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.taskapp.controller;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.example.taskapp.datasource.ReadConsistency;
+import com.example.taskapp.exception.BadRequestException;
+import com.example.taskapp.service.TaskChangeLog;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 自分の書き込みを読むための X-Task-Seq ヘッダ。
+ * 書き込み応答には、そのリクエストがコミットした変更ログの最大 seq を付ける（Committed はリクエストのスレッドで発行される）。
+ * 読み取り要求に付けて送ると、その変更がレプリカに反映されるまで読み取りはプライマリへ送られる（ReadConsistency）。
+ * レプリカ構成でなければ読み取り側の指定は効果がない。
+ */
+@Component
+class ReadYourWrites implements AsyncHandlerInterceptor, WebMvcConfigurer {
+
+    static final String HEADER = "X-Task-Seq";
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this).addPathPatterns("/api/**");
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String value = request.getHeader(HEADER);
+        if (value == null || value.isBlank()) return true;
+        long seq;
+        try {
+            seq = Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException(HEADER + "の形式が不正です: " + value);
+        }
+        if (seq > 0) ReadConsistency.require(seq);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReadConsistency.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadConsistency.clear();
+    }
+
+    @EventListener
+    void onCommitted(TaskChangeLog.Committed event) {
+        if (event.seq() <= 0) return;
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attrs)) return;
+        HttpServletResponse response = attrs.getResponse();
+        if (response == null || response.isCommitted()) return;
+        // 1リクエストで複数回コミットする処理（インポート等）は最大値を返す
+        String current = response.getHeader(HEADER);
+        if (current == null || Long.parseLong(current) < event.seq()) {
+            response.setHeader(HEADER, String.valueOf(event.seq()));
+        }
+    }
+}
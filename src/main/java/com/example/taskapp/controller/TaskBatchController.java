@@ -0,0 +1,211 @@
+package com.example.taskapp.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.taskapp.dto.BatchResp;
+import com.example.taskapp.dto.ImportResp;
+import com.example.taskapp.dto.TaskBatchCreateReq;
+import com.example.taskapp.dto.TaskBatchDeleteReq;
+import com.example.taskapp.dto.TaskBatchUpdateReq;
+import com.example.taskapp.dto.TaskCreateReq;
+import com.example.taskapp.dto.TaskResp;
+import com.example.taskapp.exception.BadRequestException;
+import com.example.taskapp.model.Task;
+import com.example.taskapp.service.BatchItemResult;
+import com.example.taskapp.service.TaskBatchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 一括API。結果は項目ごとに返し、全体の応答は常に200。
+ * POST /api/tasks:batch        一括作成
+ * POST /api/tasks:batchUpdate  一括更新（項目ごとの version で楽観ロック）
+ * POST /api/tasks:batchDelete  一括削除
+ * POST /api/tasks/import       NDJSON / CSV の逐次取り込み（件数上限なし、chunk-size 行ごとに1トランザクション）
+ */
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@Validated
+public class TaskBatchController {
+
+    private final TaskBatchService batchService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    @Value("${taskapp.batch.max-items:1000}")
+    private int maxItems;
+
+    @Value("${taskapp.import.chunk-size:500}")
+    private int importChunkSize;
+
+    @Value("${taskapp.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Value("${taskapp.import.max-line-length:65536}")
+    private int maxLineLength;
+
+    @PostMapping("/tasks:batch")
+    public ResponseEntity<BatchResp> createAll(@Valid @RequestBody TaskBatchCreateReq req) {
+        return ResponseEntity.ok(run(req.getItems(), this::toTask, batchService::createAll));
+    }
+
+    @PostMapping("/tasks:batchUpdate")
+    public ResponseEntity<BatchResp> updateAll(@Valid @RequestBody TaskBatchUpdateReq req) {
+        return ResponseEntity.ok(run(req.getItems(), this::toTask, batchService::updateAll));
+    }
+
+    @PostMapping("/tasks:batchDelete")
+    public ResponseEntity<BatchResp> deleteAll(@Valid @RequestBody TaskBatchDeleteReq req) {
+        return ResponseEntity.ok(run(req.getIds(), Function.identity(), batchService::deleteAll));
+    }
+
+    // リクエストボディを読みながら chunk 単位で書き込む。読み取りは書き込み完了まで進まないため、
+    // 送信側にはTCPの受信ウィンドウ経由で背圧がかかり、アップロード全体をメモリに載せることはない
+    @PostMapping(path = "/tasks/import", consumes = { "application/x-ndjson", "text/csv" })
+    public ResponseEntity<ImportResp> importTasks(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+
+        long started = System.nanoTime();
+        ImportProgress progress = new ImportProgress();
+        List<Task> chunk = new ArrayList<>(importChunkSize);
+        List<Long> chunkLines = new ArrayList<>(importChunkSize);
+
+        TaskImportReader reader = TaskImportReader.open(contentType, body, objectMapper, maxLineLength);
+        for (TaskImportReader.Row row = reader.next(); row != null; row = reader.next()) {
+            progress.processed++;
+            if (row.error() != null) {
+                progress.fail(row.line(), row.error());
+                continue;
+            }
+            Set<ConstraintViolation<TaskCreateReq>> violations = validator.validate(row.req());
+            if (!violations.isEmpty()) {
+                progress.fail(row.line(), describe(violations));
+                continue;
+            }
+            chunk.add(toTask(row.req()));
+            chunkLines.add(row.line());
+            if (chunk.size() >= importChunkSize) {
+                writeChunk(chunk, chunkLines, progress);
+            }
+        }
+        writeChunk(chunk, chunkLines, progress);
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        double rowsPerSecond = elapsedMillis == 0 ? progress.processed : progress.processed * 1000.0 / elapsedMillis;
+        return ResponseEntity.ok(new ImportResp(progress.processed, progress.imported, progress.failed,
+                progress.errors, progress.errorsTruncated, elapsedMillis, rowsPerSecond));
+    }
+
+    // chunk ごとに1トランザクション。DB側で失敗した chunk はその行すべてを失敗として続行する
+    private void writeChunk(List<Task> chunk, List<Long> lines, ImportProgress progress) {
+        if (chunk.isEmpty()) return;
+        try {
+            progress.imported += batchService.createAll(chunk).size();
+        } catch (DataAccessException e) {
+            String msg = "登録に失敗しました: " + e.getMostSpecificCause().getMessage();
+            for (Long line : lines) progress.fail(line, msg);
+        }
+        chunk.clear();
+        lines.clear();
+    }
+
+    private final class ImportProgress {
+        long processed;
+        long imported;
+        long failed;
+        final List<ImportResp.LineError> errors = new ArrayList<>();
+        boolean errorsTruncated;
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportResp.LineError(line, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+
+    // 項目単位で検証し、妥当なものだけをまとめてサービスへ渡す。結果は入力順に戻す
+    private <I, T> BatchResp run(List<I> items, Function<I, T> convert,
+            Function<List<T>, List<BatchItemResult>> action) {
+        if (items.size() > maxItems) {
+            throw new BadRequestException("一括処理の件数が上限を超えています: " + items.size() + " > " + maxItems);
+        }
+        List<BatchResp.Item> results = new ArrayList<>(Collections.nCopies(items.size(), null));
+        List<Integer> accepted = new ArrayList<>();
+        List<T> toProcess = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            I item = items.get(i);
+            Set<ConstraintViolation<I>> violations = validator.validate(item);
+            if (violations.isEmpty()) {
+                accepted.add(i);
+                toProcess.add(convert.apply(item));
+            } else {
+                results.set(i, new BatchResp.Item(i, 400, null, describe(violations)));
+            }
+        }
+
+        List<BatchItemResult> done = action.apply(toProcess);
+        for (int k = 0; k < done.size(); k++) {
+            int i = accepted.get(k);
+            BatchItemResult r = done.get(k);
+            results.set(i, new BatchResp.Item(i, statusOf(r.outcome()), TaskResp.from(r.task()), r.message()));
+        }
+
+        int succeeded = (int) done.stream().filter(BatchItemResult::succeeded).count();
+        return new BatchResp(results, succeeded, items.size() - succeeded);
+    }
+
+    private Task toTask(TaskCreateReq req) {
+        return new Task(null, req.getTitle(), req.getDescription(), req.getStatus(),
+                req.getDueDate(), null, null, null);
+    }
+
+    private Task toTask(TaskBatchUpdateReq.Item req) {
+        return new Task(req.getId(), req.getTitle(), req.getDescription(), req.getStatus(),
+                req.getDueDate(), req.getVersion(), null, null);
+    }
+
+    private static int statusOf(BatchItemResult.Outcome outcome) {
+        return switch (outcome) {
+            case CREATED -> 201;
+            case UPDATED -> 200;
+            case DELETED -> 204;
+            case NOT_FOUND -> 404;
+            case CONFLICT -> 409;
+        };
+    }
+
+    private static <I> String describe(Set<ConstraintViolation<I>> violations) {
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", ", "入力値が不正です: ", ""));
+    }
+}
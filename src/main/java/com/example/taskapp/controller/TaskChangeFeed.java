@@ -0,0 +1,223 @@
+package com.example.taskapp.controller;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.taskapp.dto.TaskChangeResp;
+import com.example.taskapp.model.TaskChange;
+import com.example.taskapp.service.TaskChangeLog;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 変更ログの SSE 配信（GET /api/tasks/changes/stream）。
+ * コミット通知を受けると配信用スレッドが変更ログを1回だけ読み、全購読者のキューへ積む（購読者数に比例したクエリは発行しない）。
+ * 通知の取りこぼしや他ノードのコミットに備え、購読者がいる間は poll-interval ごとにも読む。
+ * 書き出しは購読者ごとの仮想スレッドが自分のキューから行うため、受信の遅いクライアントが他の購読者や
+ * 読み出し・ハートビートを止めることはない。キュー（subscriber-queue 件）が溢れた購読者と送信に失敗した購読者は切断する。
+ * クライアントは Last-Event-ID（= seq）で続きから再接続できる。
+ */
+@Slf4j
+@Component
+class TaskChangeFeed implements DisposableBean {
+
+    static final int READ_LIMIT = 500;
+    static final long RECONNECT_MILLIS = 1000;
+
+    // 購読者のキューに積む終了の合図（同一性で判定する）
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> CLOSE = new LinkedHashSet<>();
+
+    private final TaskChangeLog changeLog;
+    private final long timeoutMillis;
+    private final int queueCapacity;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+
+    // 配信用スレッドのみが触る（destroy は配信用スレッドの終了後）
+    private final List<Subscriber> subscribers = new ArrayList<>();
+
+    TaskChangeFeed(TaskChangeLog changeLog,
+            @Value("${taskapp.changes.sse-timeout:30m}") Duration timeout,
+            @Value("${taskapp.changes.poll-interval:1s}") Duration pollInterval,
+            @Value("${taskapp.changes.heartbeat-interval:15s}") Duration heartbeatInterval,
+            @Value("${taskapp.changes.subscriber-queue:64}") int queueCapacity) {
+        this.changeLog = changeLog;
+        this.timeoutMillis = timeout.toMillis();
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "task-change-feed");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::drain, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /** since より後の変更を、既存分から順に配信し続ける */
+    SseEmitter subscribe(long since) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber sub = new Subscriber(emitter, since);
+        Runnable remove = () -> {
+            sub.stop(false);
+            removeLater(sub);
+        };
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        // 最初の送信まで応答ヘッダが送られないため、購読直後に再接続間隔とコメント行を送る
+        try {
+            emitter.send(SseEmitter.event().reconnectTime(RECONNECT_MILLIS).comment("subscribed"));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        sub.start();
+        executor.execute(() -> {
+            subscribers.add(sub);
+            drain();
+        });
+        return emitter;
+    }
+
+    @EventListener
+    void onCommitted(TaskChangeLog.Committed event) {
+        // 連続したコミットは1回の読み出しにまとめる
+        if (drainQueued.compareAndSet(false, true)) executor.execute(this::drain);
+    }
+
+    private void drain() {
+        drainQueued.set(false);
+        if (subscribers.isEmpty()) return;
+        try {
+            List<TaskChange> rows;
+            do {
+                long from = subscribers.stream().mapToLong(s -> s.lastSeq).min().getAsLong();
+                rows = changeLog.changesAfter(from, READ_LIMIT);
+                for (Subscriber sub : List.copyOf(subscribers)) sub.send(rows);
+            } while (rows.size() == READ_LIMIT && !subscribers.isEmpty());
+        } catch (RuntimeException e) {
+            // DB 障害等。次の通知・定期読み出しで再試行する
+            log.warn("change feed read failed", e);
+        }
+    }
+
+    // 切断を検知するためのコメント行（中継の無通信タイムアウト対策も兼ねる）
+    private void heartbeat() {
+        for (Subscriber sub : List.copyOf(subscribers)) {
+            sub.enqueue(SseEmitter.event().comment("ping").build());
+        }
+    }
+
+    // 配信用スレッドで購読を外す（停止後は何もしない）
+    private void removeLater(Subscriber sub) {
+        try {
+            executor.execute(() -> subscribers.remove(sub));
+        } catch (RejectedExecutionException e) {
+            // destroy 済み
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdownNow();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("change feed executor did not terminate; subscribers are left to time out");
+            return;
+        }
+        for (Subscriber sub : subscribers) sub.close();
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        // 配信用スレッドが積み、購読者の仮想スレッドが書き出す。CLOSE は正常終了の合図
+        final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        // キューへ積んだ最後の seq（配信用スレッドのみが触る）
+        long lastSeq;
+        private volatile Thread writer;
+        // 停止時に書き出し側が emitter を完了させるか（完了・切断の通知による停止では不要）
+        private volatile boolean completeOnStop = true;
+
+        Subscriber(SseEmitter emitter, long since) {
+            this.emitter = emitter;
+            this.lastSeq = since;
+        }
+
+        void start() {
+            writer = Thread.ofVirtual().name("task-change-feed-writer").start(this::write);
+        }
+
+        void stop(boolean complete) {
+            if (!complete) completeOnStop = false;
+            Thread t = writer;
+            if (t != null) t.interrupt();
+        }
+
+        // 未送信分をまとめて1回分として積む
+        void send(List<TaskChange> rows) {
+            Set<ResponseBodyEmitter.DataWithMediaType> events = new LinkedHashSet<>();
+            long last = lastSeq;
+            for (TaskChange c : rows) {
+                if (c.getSeq() <= last) continue;
+                events.addAll(SseEmitter.event()
+                        .id(String.valueOf(c.getSeq()))
+                        .name("change")
+                        .data(TaskChangeResp.from(c), MediaType.APPLICATION_JSON)
+                        .build());
+                last = c.getSeq();
+            }
+            if (events.isEmpty()) return;
+            if (enqueue(events)) lastSeq = last;
+        }
+
+        // 待たずに積む。溢れたら（書き出しが追いつかない）購読を外し、書き出し側に切断させる
+        boolean enqueue(Set<ResponseBodyEmitter.DataWithMediaType> events) {
+            if (queue.offer(events)) return true;
+            subscribers.remove(this);
+            stop(true);
+            return false;
+        }
+
+        void close() {
+            if (!queue.offer(CLOSE)) stop(true);
+        }
+
+        private void write() {
+            try {
+                while (true) {
+                    Set<ResponseBodyEmitter.DataWithMediaType> events = queue.take();
+                    if (events == CLOSE) {
+                        emitter.complete();
+                        return;
+                    }
+                    emitter.send(events);
+                }
+            } catch (InterruptedException e) {
+                // 溢れ・停止。クライアントは Last-Event-ID で再接続する
+                if (completeOnStop) emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                removeLater(this);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -1,14 +1,21 @@
 package com.example.taskapp.controller;
 
+import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -17,17 +24,42 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.example.taskapp.dto.PageResponse;
+import com.example.taskapp.dto.ReindexResp;
+import com.example.taskapp.dto.TaskBody;
+import com.example.taskapp.dto.TaskChangeResp;
+import com.example.taskapp.dto.TaskChangesResp;
 import com.example.taskapp.dto.TaskCreateReq;
+import com.example.taskapp.dto.TaskCursorPageBody;
+import com.example.taskapp.dto.TaskPageBody;
 import com.example.taskapp.dto.TaskResp;
+import com.example.taskapp.dto.TaskSummaryResp;
+import com.example.taskapp.dto.TaskSyncBody;
 import com.example.taskapp.dto.TaskUpdateReq;
+import com.example.taskapp.exception.BadRequestException;
 import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskChange;
+import com.example.taskapp.model.TaskField;
+import com.example.taskapp.model.TaskPatch;
+import com.example.taskapp.model.TaskSearchCondition;
+import com.example.taskapp.model.TaskSort;
 import com.example.taskapp.model.TaskStatus;
+import com.example.taskapp.service.CursorPageResult;
 import com.example.taskapp.service.PageResult;
 import com.example.taskapp.service.TaskService;
+import com.example.taskapp.service.TaskSyncResult;
+import com.example.taskapp.service.TaskUpdateCoordinator;
+import com.example.taskapp.service.TotalMode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -37,6 +69,11 @@ import lombok.RequiredArgsConstructor;
 public class TaskController {
 
     private final TaskService taskService;
+    private final TaskUpdateCoordinator updateCoordinator;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TaskChangeFeed changeFeed;
+    private final TaskPageCache pageCache;
 
     @PostMapping
     public ResponseEntity<TaskResp> create(@Valid @RequestBody TaskCreateReq req) {
@@ -46,47 +83,294 @@ public class TaskController {
         return ResponseEntity.status(HttpStatus.CREATED).body(TaskResp.from(created));
     }
 
+    // fields 指定時は指定列のみ SELECT して、その項目だけを返す
     @GetMapping("/{id}")
-    public ResponseEntity<TaskResp> get(@PathVariable("id") Long id) {
-        Task t = taskService.get(id);
-        return ResponseEntity.ok(TaskResp.from(t));
+    public ResponseEntity<TaskBody> get(
+            @PathVariable("id") Long id,
+            @RequestParam(name = "fields", required = false) String fields,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        Set<TaskField> selected = TaskField.parse(fields);
+
+        // If-None-Match 指定時は version のみで判定し、一致すれば行を読まずに304
+        if (ifNoneMatch != null) {
+            String current = ETags.quoted(taskService.getVersion(id));
+            if (ETags.matches(ifNoneMatch, current)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).header(HttpHeaders.ETAG, current).build();
+            }
+        }
+        Task t = taskService.get(id, selected);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.ETAG, ETags.quoted(t.getVersion()))
+                .body(new TaskBody(t, selected));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<TaskResp> update(
             @PathVariable("id") Long id,
-            @RequestHeader(name = "If-Match", required = true) long ifMatch,
+            @RequestHeader(name = "If-Match", required = true) String ifMatch,
             @Valid @RequestBody TaskUpdateReq req) {
 
         Task toUpdate = new Task(id, req.getTitle(), req.getDescription(), req.getStatus(),
                 req.getDueDate(), null, null, null);
 
-        Task updated = taskService.update(id, ifMatch, toUpdate);
+        Task updated = updateCoordinator.update(id, ETags.parseVersion(ifMatch), toUpdate);
         return ResponseEntity.ok()
                 // ETagは数値・非引用を厳守（SpringのeTag()は引用付与するため使用しない）
-                .header(HttpHeaders.ETAG, String.valueOf(updated.getVersion()))
+                .header(HttpHeaders.ETAG, ETags.of(updated.getVersion()))
                 .body(TaskResp.from(updated));
     }
 
+    /**
+     * JSON Merge Patch（RFC 7396）。含めた項目のみ変更し、null は null への更新。
+     * 値が現在と同じ項目は書き込まず、変更がなければ version も変わらない。
+     */
+    @PatchMapping(path = "/{id}", consumes = { "application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<TaskResp> patch(
+            @PathVariable("id") Long id,
+            @RequestHeader(name = "If-Match", required = true) String ifMatch,
+            @RequestBody JsonNode body) {
+
+        Task patched = taskService.patch(id, ETags.parseVersion(ifMatch), toPatch(body));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.ETAG, ETags.of(patched.getVersion()))
+                .body(TaskResp.from(patched));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable("id") Long id) {
         taskService.delete(id);
         return ResponseEntity.noContent().build();
     }
 
+    // 一覧は Task から応答JSONへ直接書き出す（行ごとの TaskResp を作らない）。
+    // fields 指定時は SELECT する列も絞る（description を含めなければ行あたりの読み取り量が大きく減る）。
+    // 圧縮済みページのキャッシュが有効で gzip を受け付けるクライアントには、ETag が一致するキャッシュ済みの本文を返す
     @GetMapping
-    public ResponseEntity<PageResponse<TaskResp>> search(
+    public ResponseEntity<?> search(
             @RequestParam(name = "status", required = false) TaskStatus status,
             @RequestParam(name = "q", required = false, defaultValue = "") String q,
+            @RequestParam(name = "dueFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+            @RequestParam(name = "dueTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+            @RequestParam(name = "overdue", required = false, defaultValue = "false") boolean overdue,
             @RequestParam(name = "page", required = false, defaultValue = "0") int page,
-            @RequestParam(name = "size", required = false, defaultValue = "20") int size) {
+            @RequestParam(name = "size", required = false, defaultValue = "20") int size,
+            @RequestParam(name = "total", required = false, defaultValue = "exact") String total,
+            @RequestParam(name = "sort", required = false, defaultValue = "") String sort,
+            @RequestParam(name = "fields", required = false) String fields,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        Set<TaskField> selected = TaskField.parse(fields);
+        TaskSearchCondition filter = dueFilter(TaskSearchCondition.builder(), dueFrom, dueTo, overdue)
+                .status(status).q(q).sort(TaskSort.from(sort)).fields(selected).build();
+        TotalMode totalMode = TotalMode.from(total);
+        boolean cached = pageCache.applies(acceptEncoding);
+
+        // If-None-Match 指定時・キャッシュ参照時は (id, version) のみ取得してETagを求める
+        PageResult<Task> keys = null;
+        if (ifNoneMatch != null || cached) {
+            keys = taskService.search(filter.toBuilder().keysOnly(true).build(), page, size, totalMode);
+            String etag = etagOf(keys, selected);
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).header(HttpHeaders.ETAG, etag).build();
+            }
+            byte[] hit = cached ? pageCache.get(etag) : null;
+            if (hit != null) return gzipped(etag, hit);
+        }
 
-        PageResult<Task> result = taskService.search(status, q, page, size);
-        List<TaskResp> content = result.content().stream()
-                .map(TaskResp::from)
-                .collect(Collectors.toList());
-        PageResponse<TaskResp> body = new PageResponse<>(content, result.page(), result.size(), result.total());
-        return ResponseEntity.ok(body);
+        // キー取得済みなら件数・hasNext はその結果を使い、本文の行だけを読む（COUNT を繰り返さない）
+        PageResult<Task> result = keys == null
+                ? taskService.search(filter, page, size, totalMode)
+                : taskService.search(filter, keys);
+        TaskPageBody body = new TaskPageBody(result.content(), result.page(), result.size(), result.total(),
+                result.hasNext(), result.totalMode().value(), selected);
+        String etag = etagOf(result, selected);
+        return cached ? compress(etag, body) : ResponseEntity.ok().header(HttpHeaders.ETAG, etag).body(body);
+    }
+
+    // cursor パラメータ指定時はキーセットページング（空文字で先頭ページ）
+    @GetMapping(params = "cursor")
+    public ResponseEntity<?> searchByCursor(
+            @RequestParam(name = "status", required = false) TaskStatus status,
+            @RequestParam(name = "q", required = false, defaultValue = "") String q,
+            @RequestParam(name = "dueFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+            @RequestParam(name = "dueTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+            @RequestParam(name = "overdue", required = false, defaultValue = "false") boolean overdue,
+            @RequestParam(name = "cursor") String cursor,
+            @RequestParam(name = "size", required = false, defaultValue = "20") int size,
+            @RequestParam(name = "fields", required = false) String fields,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        Set<TaskField> selected = TaskField.parse(fields);
+        TaskSearchCondition filter = dueFilter(TaskSearchCondition.builder(), dueFrom, dueTo, overdue)
+                .status(status).q(q).fields(selected).build();
+        boolean cached = pageCache.applies(acceptEncoding);
+        if (ifNoneMatch != null || cached) {
+            CursorPageResult<Task> keys = taskService.searchAfter(filter.toBuilder().keysOnly(true).build(), cursor, size);
+            String etag = etagOf(keys, selected);
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).header(HttpHeaders.ETAG, etag).build();
+            }
+            byte[] hit = cached ? pageCache.get(etag) : null;
+            if (hit != null) return gzipped(etag, hit);
+        }
+
+        CursorPageResult<Task> result = taskService.searchAfter(filter, cursor, size);
+        TaskCursorPageBody body = new TaskCursorPageBody(result.content(), result.size(), result.nextCursor(), selected);
+        String etag = etagOf(result, selected);
+        return cached ? compress(etag, body) : ResponseEntity.ok().header(HttpHeaders.ETAG, etag).body(body);
+    }
+
+    // 検索条件に一致する全件をストリーミング出力（NDJSON / CSV）。ページングの size 上限は適用しない
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(name = "status", required = false) TaskStatus status,
+            @RequestParam(name = "q", required = false, defaultValue = "") String q,
+            @RequestParam(name = "dueFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+            @RequestParam(name = "dueTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+            @RequestParam(name = "overdue", required = false, defaultValue = "false") boolean overdue,
+            @RequestParam(name = "format", required = false, defaultValue = "ndjson") String format) {
+
+        TaskExportWriter.Format fmt = TaskExportWriter.Format.from(format);
+        TaskSearchCondition filter = dueFilter(TaskSearchCondition.builder(), dueFrom, dueTo, overdue)
+                .status(status).q(q).build();
+        StreamingResponseBody body = out -> {
+            try (TaskExportWriter writer = TaskExportWriter.open(fmt, out, objectMapper)) {
+                taskService.export(filter, writer::write);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(fmt.mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("tasks." + fmt.extension).build().toString())
+                .body(body);
+    }
+
+    // 変更ログの差分取得。検索・件数を実行しないため、変更の有無の確認はこちらで行う。next を次回の since に指定する
+    @GetMapping("/changes")
+    public ResponseEntity<TaskChangesResp> changes(
+            @RequestParam(name = "since", required = false, defaultValue = "0") long since,
+            @RequestParam(name = "limit", required = false, defaultValue = "100") int limit) {
+
+        if (limit <= 0) limit = 100;
+        if (limit > 1000) limit = 1000;
+        List<TaskChange> rows = taskService.changesAfter(Math.max(since, 0), limit);
+        long next = rows.isEmpty() ? since : rows.get(rows.size() - 1).getSeq();
+        return ResponseEntity.ok(new TaskChangesResp(
+                rows.stream().map(TaskChangeResp::from).toList(), next, rows.size() == limit));
     }
-}
 
+    // 変更をコミット時に SSE で配信する（event: change, id: seq）。
+    // 再接続時は Last-Event-ID、初回は since で開始位置を指定する（省略時は購読開始以降の変更のみ）
+    @GetMapping(path = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changeStream(
+            @RequestParam(name = "since", required = false) Long since,
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+
+        long from = (lastEventId != null) ? lastEventId : (since != null) ? since : taskService.latestChangeSeq();
+        return changeFeed.subscribe(Math.max(from, 0));
+    }
+
+    // ダッシュボード用の件数集計。件数カウンタの合計を返すだけで、表の大きさに依存しない
+    @GetMapping("/summary")
+    public ResponseEntity<TaskSummaryResp> summary() {
+        return ResponseEntity.ok(TaskSummaryResp.from(taskService.summary()));
+    }
+
+    // 差分同期。token なしで全件（size 件ずつ）、以降は前回の token 以降に変更・削除された行のみ返す
+    @GetMapping("/sync")
+    public ResponseEntity<TaskSyncBody> sync(
+            @RequestParam(name = "token", required = false) String token,
+            @RequestParam(name = "size", required = false, defaultValue = "100") int size) {
+
+        TaskSyncResult<Task> r = taskService.sync(token, size);
+        return ResponseEntity.ok(new TaskSyncBody(r.changed(), r.deleted(), r.token(), r.hasMore()));
+    }
+
+    // キーワード検索用の転置インデックスを再構築（text-backend を index に切り替えた際の初期投入など）
+    @PostMapping("/search-index/rebuild")
+    public ResponseEntity<ReindexResp> rebuildSearchIndex() {
+        long indexed = taskService.rebuildSearchIndex();
+        return ResponseEntity.ok(new ReindexResp(indexed));
+    }
+
+    // 項目ごとに TaskUpdateReq と同じ制約で検証する（null を置ける項目かどうかも含む）
+    private TaskPatch toPatch(JsonNode body) {
+        if (body == null || !body.isObject()) throw new BadRequestException("リクエストボディが不正です");
+        TaskPatch patch = new TaskPatch();
+        Set<ConstraintViolation<TaskUpdateReq>> violations = new HashSet<>();
+        for (Map.Entry<String, JsonNode> e : body.properties()) {
+            String name = e.getKey();
+            JsonNode value = e.getValue();
+            switch (name) {
+                case "title" -> patch.title(read(name, value, String.class));
+                case "description" -> patch.description(read(name, value, String.class));
+                case "status" -> patch.status(read(name, value, TaskStatus.class));
+                case "dueDate" -> patch.dueDate(read(name, value, LocalDate.class));
+                default -> throw new BadRequestException("更新できない項目です: " + name);
+            }
+        }
+        if (patch.isTitleSet()) violations.addAll(validator.validateValue(TaskUpdateReq.class, "title", patch.getTitle()));
+        if (patch.isDescriptionSet()) violations.addAll(validator.validateValue(TaskUpdateReq.class, "description", patch.getDescription()));
+        if (patch.isStatusSet()) violations.addAll(validator.validateValue(TaskUpdateReq.class, "status", patch.getStatus()));
+        if (patch.isDueDateSet()) violations.addAll(validator.validateValue(TaskUpdateReq.class, "dueDate", patch.getDueDate()));
+        if (!violations.isEmpty()) throw new ConstraintViolationException(violations);
+        return patch;
+    }
+
+    private <T> T read(String name, JsonNode value, Class<T> type) {
+        if (value.isNull()) return null;
+        try {
+            return objectMapper.treeToValue(value, type);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new BadRequestException("値の形式が不正です: " + name);
+        }
+    }
+
+    // 直列化して圧縮・キャッシュ登録する。閾値未満の本文は非圧縮で返す（Tomcat の応答圧縮も閾値未満は圧縮しない）
+    private ResponseEntity<byte[]> compress(String etag, Object body) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] gz = pageCache.put(etag, json);
+        if (gz != null) return gzipped(etag, gz);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.ETAG, etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .body(json);
+    }
+
+    // Content-Encoding 設定済みの応答は Tomcat が再圧縮しない
+    private static ResponseEntity<byte[]> gzipped(String etag, byte[] gz) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.ETAG, etag)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .body(gz);
+    }
+
+    // 期限日の範囲（dueFrom / dueTo、両端を含む）と期限切れ（overdue: 未完了かつ期限日が今日より前）
+    private static TaskSearchCondition.TaskSearchConditionBuilder dueFilter(TaskSearchCondition.TaskSearchConditionBuilder b,
+            LocalDate dueFrom, LocalDate dueTo, boolean overdue) {
+        if (dueFrom != null && dueTo != null && dueFrom.isAfter(dueTo)) {
+            throw new BadRequestException("dueFromにはdueTo以前の日付を指定してください");
+        }
+        return b.dueFrom(dueFrom).dueTo(dueTo).overdue(overdue);
+    }
+
+    // 項目の選択が違えば表現が異なるため fields も ETag に含める
+    private static String etagOf(PageResult<Task> r, Set<TaskField> fields) {
+        return ETags.weak(r.content(), r.page(), r.size(), r.total(), r.hasNext(), r.totalMode(), fields);
+    }
+
+    private static String etagOf(CursorPageResult<Task> r, Set<TaskField> fields) {
+        return ETags.weak(r.content(), r.size(), r.nextCursor(), fields);
+    }
+}
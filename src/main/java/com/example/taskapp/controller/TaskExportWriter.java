@@ -0,0 +1,138 @@
+package com.example.taskapp.controller;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.springframework.http.MediaType;
+
+import com.example.taskapp.dto.TaskJson;
+import com.example.taskapp.exception.BadRequestException;
+import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskField;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * エクスポートの1行ずつの書き出し（NDJSON / CSV）。行ごとに flush せず、出力ストリームのバッファに任せる。
+ */
+abstract class TaskExportWriter implements AutoCloseable {
+
+    enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+        final MediaType mediaType;
+        final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        static Format from(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("formatの指定が不正です: " + value);
+            }
+        }
+    }
+
+    static final String[] CSV_COLUMNS = {
+            "id", "title", "description", "status", "dueDate", "version", "createdAt", "updatedAt" };
+
+    static TaskExportWriter open(Format format, OutputStream out, ObjectMapper objectMapper) throws IOException {
+        return switch (format) {
+            case NDJSON -> new Ndjson(out, objectMapper);
+            case CSV -> new Csv(out);
+        };
+    }
+
+    /** 1行書き出す。StreamingResponseBody 内の Consumer から呼ぶため IOException は非検査例外に包む */
+    final void write(Task task) {
+        try {
+            writeRow(task);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    abstract void writeRow(Task task) throws IOException;
+
+    @Override
+    public abstract void close() throws IOException;
+
+    private static final class Ndjson extends TaskExportWriter {
+        private final JsonGenerator gen;
+
+        Ndjson(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.gen = objectMapper.getFactory().createGenerator(out);
+            this.gen.setRootValueSeparator(null);
+        }
+
+        @Override
+        void writeRow(Task task) throws IOException {
+            TaskJson.write(gen, task, TaskField.ALL);
+            gen.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            gen.flush();
+        }
+    }
+
+    private static final class Csv extends TaskExportWriter {
+        private final Writer out;
+
+        Csv(OutputStream out) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.out.write(String.join(",", CSV_COLUMNS));
+            this.out.write("\r\n");
+        }
+
+        @Override
+        void writeRow(Task t) throws IOException {
+            out.write(String.valueOf(t.getId()));
+            out.write(',');
+            field(t.getTitle());
+            out.write(',');
+            field(t.getDescription());
+            out.write(',');
+            field(t.getStatus());
+            out.write(',');
+            field(t.getDueDate());
+            out.write(',');
+            field(t.getVersion());
+            out.write(',');
+            field(t.getCreatedAt());
+            out.write(',');
+            field(t.getUpdatedAt());
+            out.write("\r\n");
+        }
+
+        // RFC 4180: カンマ・引用符・改行を含む値は "..." で囲み、" は "" にする
+        private void field(Object value) throws IOException {
+            if (value == null) return;
+            String s = value.toString();
+            if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+                out.write(s);
+                return;
+            }
+            out.write('"');
+            out.write(s.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
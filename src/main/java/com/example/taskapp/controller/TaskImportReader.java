@@ -0,0 +1,196 @@
+package com.example.taskapp.controller;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.http.MediaType;
+
+import com.example.taskapp.dto.TaskCreateReq;
+import com.example.taskapp.exception.BadRequestException;
+import com.example.taskapp.model.TaskStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * インポートの1行ずつの読み取り（NDJSON / CSV）。リクエストストリームから逐次読むため全体をメモリに載せない。
+ * CSV はヘッダ行の列名で対応付け、エクスポート形式（id, version 等の列を含む）もそのまま受け付ける。
+ * 1行（CSV は引用符内の改行を含む1レコード）が maxLineLength 文字を超えたら、その時点で BadRequestException とする
+ * （改行のない巨大な本文で行バッファが際限なく伸びないように）。それまでに書き込んだ chunk は登録済みのまま残る。
+ */
+abstract class TaskImportReader {
+
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    /** 1行分。parse に失敗した場合は req が null で error にその理由 */
+    record Row(long line, TaskCreateReq req, String error) {}
+
+    static TaskImportReader open(MediaType contentType, InputStream in, ObjectMapper objectMapper, int maxLineLength)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        if (contentType != null && NDJSON.isCompatibleWith(contentType)) return new Ndjson(reader, objectMapper, maxLineLength);
+        if (contentType != null && CSV.isCompatibleWith(contentType)) return new Csv(reader, maxLineLength);
+        throw new BadRequestException("Content-Typeは application/x-ndjson または text/csv を指定してください");
+    }
+
+    /** 次の行。終端なら null */
+    abstract Row next() throws IOException;
+
+    private static BadRequestException tooLong(long line, int maxLineLength) {
+        return new BadRequestException(line + "行目が長すぎます（上限 " + maxLineLength + " 文字）");
+    }
+
+    private static final class Ndjson extends TaskImportReader {
+        private final BufferedReader in;
+        private final ObjectMapper objectMapper;
+        private final int maxLineLength;
+        private final StringBuilder buf = new StringBuilder();
+        private long line;
+
+        Ndjson(BufferedReader in, ObjectMapper objectMapper, int maxLineLength) {
+            this.in = in;
+            this.objectMapper = objectMapper;
+            this.maxLineLength = maxLineLength;
+        }
+
+        @Override
+        Row next() throws IOException {
+            String text;
+            do {
+                text = readLine();
+                if (text == null) return null;
+                line++;
+            } while (text.isBlank());
+            try {
+                return new Row(line, objectMapper.readValue(text, TaskCreateReq.class), null);
+            } catch (JsonProcessingException e) {
+                return new Row(line, null, "JSONとして解釈できません: " + e.getOriginalMessage());
+            }
+        }
+
+        // BufferedReader.readLine と同じ区切り（\n, \r, \r\n）で、maxLineLength 文字を超えた時点で打ち切る
+        private String readLine() throws IOException {
+            buf.setLength(0);
+            int c = in.read();
+            if (c == -1) return null;
+            while (c != -1 && c != '\n' && c != '\r') {
+                if (buf.length() == maxLineLength) throw tooLong(line + 1, maxLineLength);
+                buf.append((char) c);
+                c = in.read();
+            }
+            if (c == '\r') {
+                in.mark(1);
+                if (in.read() != '\n') in.reset();
+            }
+            return buf.toString();
+        }
+    }
+
+    private static final class Csv extends TaskImportReader {
+        private final BufferedReader in;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private final int maxLineLength;
+        private long line = 1;
+
+        Csv(BufferedReader in, int maxLineLength) throws IOException {
+            this.in = in;
+            this.maxLineLength = maxLineLength;
+            List<String> header = readRecord();
+            if (header == null) throw new BadRequestException("CSVにヘッダ行がありません");
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim(), i);
+            }
+            if (!columns.containsKey("title") || !columns.containsKey("status")) {
+                throw new BadRequestException("CSVヘッダに title と status の列が必要です");
+            }
+        }
+
+        @Override
+        Row next() throws IOException {
+            List<String> fields;
+            long start;
+            do {
+                start = line;
+                fields = readRecord();
+                if (fields == null) return null;
+            } while (fields.size() == 1 && fields.get(0).isEmpty());
+
+            try {
+                TaskCreateReq req = new TaskCreateReq();
+                req.setTitle(field(fields, "title"));
+                req.setDescription(field(fields, "description"));
+                String status = field(fields, "status");
+                req.setStatus(status == null ? null : TaskStatus.valueOf(status.trim().toUpperCase(Locale.ROOT)));
+                String due = field(fields, "dueDate");
+                req.setDueDate(due == null ? null : LocalDate.parse(due.trim()));
+                return new Row(start, req, null);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                return new Row(start, null, "値を解釈できません: " + e.getMessage());
+            }
+        }
+
+        // 空文字は null 扱い（エクスポートは null を空欄で出力するため）
+        private String field(List<String> fields, String name) {
+            Integer idx = columns.get(name);
+            if (idx == null || idx >= fields.size()) return null;
+            String v = fields.get(idx);
+            return v.isEmpty() ? null : v;
+        }
+
+        // RFC 4180 の1レコード。引用符内の改行・"" を扱う。終端なら null。レコード全体で maxLineLength 文字まで
+        private List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder cur = new StringBuilder();
+            boolean inQuotes = false;
+            boolean started = false;
+            long start = line;
+            int length = 0;
+            while (true) {
+                int c = in.read();
+                if (c == -1) {
+                    if (!started) return null;
+                    fields.add(cur.toString());
+                    return fields;
+                }
+                started = true;
+                if (++length > maxLineLength) throw tooLong(start, maxLineLength);
+                if (inQuotes) {
+                    if (c == '"') {
+                        in.mark(1);
+                        int n = in.read();
+                        if (n == '"') {
+                            cur.append('"');
+                        } else {
+                            inQuotes = false;
+                            if (n != -1) in.reset();
+                        }
+                    } else {
+                        if (c == '\n') line++;
+                        cur.append((char) c);
+                    }
+                } else if (c == '"' && cur.isEmpty()) {
+                    inQuotes = true;
+                } else if (c == ',') {
+                    fields.add(cur.toString());
+                    cur.setLength(0);
+                } else if (c == '\n') {
+                    line++;
+                    fields.add(cur.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    cur.append((char) c);
+                }
+            }
+        }
+    }
+}
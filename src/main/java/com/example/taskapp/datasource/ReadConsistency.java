@@ -0,0 +1,36 @@
+package com.example.taskapp.datasource;
+
+/**
+ * リクエストが要求する読み取りの鮮度。クライアントが書き込み応答で受け取った変更ログの seq を次の読み取りで送ると、
+ * その変更がレプリカに反映されるまではプライマリから読む（自分の書き込みを読める）。
+ * 値はリクエストのスレッドに保持する（非同期処理のスレッドには引き継がない）。
+ */
+public final class ReadConsistency {
+
+    private static final ThreadLocal<Required> REQUIRED = new ThreadLocal<>();
+
+    private ReadConsistency() {}
+
+    /** 要求された seq と、レプリカへの反映を確認済みか（1リクエスト内の複数のトランザクションで確認を繰り返さない） */
+    static final class Required {
+        final long seq;
+        boolean confirmed;
+
+        Required(long seq) {
+            this.seq = seq;
+        }
+    }
+
+    public static void require(long seq) {
+        REQUIRED.set(new Required(seq));
+    }
+
+    public static void clear() {
+        REQUIRED.remove();
+    }
+
+    /** 要求された seq。指定がなければ null */
+    static Required required() {
+        return REQUIRED.get();
+    }
+}
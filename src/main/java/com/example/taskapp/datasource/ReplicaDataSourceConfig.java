@@ -0,0 +1,75 @@
+package com.example.taskapp.datasource;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 読み取りレプリカ構成（taskapp.replica.enabled=true）。
+ * プライマリ（spring.datasource.*）とレプリカ（taskapp.replica.*）の2つのプールを作り、アプリが使う DataSource は
+ * LazyConnectionDataSourceProxy とする。@Transactional(readOnly = true) のトランザクションは接続に readOnly が
+ * 設定されるため readOnlyDataSource（ReplicaRoutingDataSource）へ、それ以外（書き込み・トランザクション外）はプライマリへ送られる。
+ * Flyway もこの DataSource を使うため、マイグレーションはプライマリにのみ適用される（レプリカへは複製で反映される前提）。
+ * レプリカは起動時に接続できなくてもよい（接続できるまで読み取りはプライマリへ送る）。
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "taskapp.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource ds = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("primary");
+        return ds;
+    }
+
+    @Bean
+    @ConfigurationProperties("taskapp.replica.hikari")
+    HikariDataSource replicaDataSource(
+            @Value("${taskapp.replica.url}") String url,
+            @Value("${taskapp.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${taskapp.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource ds = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url).username(username).password(password).build();
+        ds.setPoolName("replica");
+        ds.setInitializationFailTimeout(-1);
+        ds.setReadOnly(true);
+        return ds;
+    }
+
+    @Bean
+    ReplicaRouting replicaRouting(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${taskapp.replica.max-lag:5s}") Duration maxLag,
+            MeterRegistry registry) {
+        return new ReplicaRouting(primary, replica, maxLag, registry);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            ReplicaRouting routing) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replica, routing));
+        return proxy;
+    }
+}
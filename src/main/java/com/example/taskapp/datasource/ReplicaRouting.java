@@ -0,0 +1,117 @@
+package com.example.taskapp.datasource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 読み取り専用トランザクションをレプリカで実行してよいかの判定。
+ * 遅延は変更ログ（task_changes）で測る: レプリカの最大 seq より後の、プライマリにある最古の変更の経過時間を
+ * lag-check-interval ごとに求め、max-lag を超えたとき・測れないとき（未起動・表がない等）は全読み取りをプライマリへ送る
+ * （seq は INSERT 順でコミット順ではないため、遅れてコミットされた小さい seq の分だけ遅延を小さく見積もることがある）。
+ * リクエストが seq を要求していれば（ReadConsistency）、その seq の変更ログ行がレプリカにあるときのみレプリカを使う。
+ * 変更ログ行は書き込みと同じトランザクションで書かれるため、行があればそのトランザクション全体が反映済みで、
+ * 最大 seq との比較と違いコミット順の入れ替わりの影響を受けない。
+ */
+@Slf4j
+public class ReplicaRouting {
+
+    private static final String MAX_SEQ = "SELECT COALESCE(MAX(seq), 0) FROM task_changes";
+    private static final String OLDEST_AFTER = "SELECT MIN(changed_at) FROM task_changes WHERE seq > ?";
+    private static final String HAS_SEQ = "SELECT COUNT(*) FROM task_changes WHERE seq = ?";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+    private final AtomicLong replicaSeq = new AtomicLong();
+    private volatile boolean healthy;
+    private volatile double lagSeconds = Double.NaN;
+
+    private final Counter toReplica;
+    private final Counter laggingReplica;
+    private final Counter staleForToken;
+
+    public ReplicaRouting(DataSource primary, DataSource replica, Duration maxLag, MeterRegistry registry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLag = maxLag;
+        this.toReplica = routed(registry, "replica", "ok");
+        this.laggingReplica = routed(registry, "primary", "lag");
+        this.staleForToken = routed(registry, "primary", "token");
+        Gauge.builder("taskapp.replica.lag", this, r -> r.lagSeconds).baseUnit("seconds").register(registry);
+    }
+
+    private static Counter routed(MeterRegistry registry, String target, String reason) {
+        return Counter.builder("taskapp.replica.reads").tags("target", target, "reason", reason).register(registry);
+    }
+
+    /** 現在のリクエストの読み取り専用トランザクションをレプリカで実行してよいか */
+    public boolean useReplica() {
+        if (!healthy) {
+            laggingReplica.increment();
+            return false;
+        }
+        ReadConsistency.Required required = ReadConsistency.required();
+        if (required != null && !applied(required)) {
+            staleForToken.increment();
+            return false;
+        }
+        toReplica.increment();
+        return true;
+    }
+
+    /** 観測済みのレプリカの反映位置 */
+    public long replicaSeq() {
+        return replicaSeq.get();
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /** レプリカの反映位置と遅延を測り直す */
+    @Scheduled(fixedDelayString = "${taskapp.replica.lag-check-interval:1s}")
+    public void probe() {
+        try {
+            long seq = observe();
+            Timestamp oldest = primary.queryForObject(OLDEST_AFTER, Timestamp.class, seq);
+            Duration lag = (oldest == null) ? Duration.ZERO : Duration.between(oldest.toInstant(), Instant.now());
+            lagSeconds = Math.max(lag.toMillis(), 0) / 1000.0;
+            boolean ok = lag.compareTo(maxLag) <= 0;
+            if (ok != healthy) log.info("replica {} (seq={}, lag={})", ok ? "in sync" : "lagging", seq, lag);
+            healthy = ok;
+        } catch (DataAccessException e) {
+            if (healthy) log.warn("replica unavailable, routing reads to primary", e);
+            lagSeconds = Double.NaN;
+            healthy = false;
+        }
+    }
+
+    private boolean applied(ReadConsistency.Required required) {
+        if (required.confirmed) return true;
+        try {
+            Integer found = replica.queryForObject(HAS_SEQ, Integer.class, required.seq);
+            required.confirmed = found != null && found > 0;
+        } catch (DataAccessException e) {
+            return false;
+        }
+        return required.confirmed;
+    }
+
+    private long observe() {
+        Long seq = replica.queryForObject(MAX_SEQ, Long.class);
+        return replicaSeq.accumulateAndGet(seq == null ? 0 : seq, Math::max);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.taskapp.dto;
+
+import java.util.List;
+
+public record BatchResp(List<Item> results, int succeeded, int failed) {
+
+    /** index は入力配列での位置、status は単体APIで返すHTTPステータス相当 */
+    public record Item(int index, int status, TaskResp task, String message) {}
+}
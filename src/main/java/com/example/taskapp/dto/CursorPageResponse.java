@@ -0,0 +1,5 @@
+package com.example.taskapp.dto;
+
+import java.util.List;
+
+public record CursorPageResponse<T>(List<T> content, int size, String nextCursor) {}
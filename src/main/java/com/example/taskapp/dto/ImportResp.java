@@ -0,0 +1,14 @@
+package com.example.taskapp.dto;
+
+import java.util.List;
+
+/**
+ * 取り込み結果。errors は先頭から上限件数まで（errorsTruncated で打ち切りを示す）。
+ * rowsPerSecond は処理した行数（成功・失敗とも）を経過時間で割ったもの。
+ */
+public record ImportResp(long processed, long imported, long failed, List<LineError> errors,
+        boolean errorsTruncated, long elapsedMillis, double rowsPerSecond) {
+
+    /** line は入力の行番号（1始まり。CSVはヘッダ行を含む） */
+    public record LineError(long line, String message) {}
+}
@@ -2,5 +2,4 @@ package com.example.taskapp.dto;
 
 import java.util.List;
 
-public record PageResponse<T>(List<T> content, int page, int size, long total) {}
-
+public record PageResponse<T>(List<T> content, int page, int size, Long total, boolean hasNext, String totalMode) {}
@@ -0,0 +1,3 @@
+package com.example.taskapp.dto;
+
+public record ReindexResp(long indexed) {}
@@ -0,0 +1,13 @@
+package com.example.taskapp.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class TaskBatchCreateReq {
+    // 各要素の検証は項目単位で行い、不正な項目のみ失敗として返す
+    @NotNull
+    private List<TaskCreateReq> items;
+}
@@ -0,0 +1,12 @@
+package com.example.taskapp.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class TaskBatchDeleteReq {
+    @NotNull
+    private List<@NotNull Long> ids;
+}
@@ -0,0 +1,25 @@
+package com.example.taskapp.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+@Data
+public class TaskBatchUpdateReq {
+    // 各要素の検証は項目単位で行い、不正な項目のみ失敗として返す
+    @NotNull
+    private List<Item> items;
+
+    /** 1件分の更新内容。version は単体更新の If-Match に相当 */
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class Item extends TaskUpdateReq {
+        @NotNull
+        private Long id;
+
+        @NotNull
+        private Long version;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.taskapp.dto;
+
+import java.io.IOException;
+import java.util.Set;
+
+import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskField;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+/** 単票の応答。全項目なら TaskResp と同じJSON、fields 指定時はその項目のみ */
+public record TaskBody(Task task, Set<TaskField> fields) implements JsonSerializable {
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        TaskJson.write(gen, task, fields);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.taskapp.dto;
+
+import java.time.Instant;
+
+import com.example.taskapp.model.TaskChange;
+
+/** 変更ログの1件。version は変更後の値（DELETED は null）。行の内容は GET /api/tasks/{id} で取得する */
+public record TaskChangeResp(long seq, Long taskId, TaskChange.Op op, Long version, Instant changedAt) {
+
+    public static TaskChangeResp from(TaskChange c) {
+        return new TaskChangeResp(c.getSeq(), c.getTaskId(), c.getOp(), c.getVersion(), c.getChangedAt());
+    }
+}
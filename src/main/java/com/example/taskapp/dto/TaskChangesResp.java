@@ -0,0 +1,6 @@
+package com.example.taskapp.dto;
+
+import java.util.List;
+
+/** 差分取得の結果。next を次回の since に指定する（変更がなければ since のまま） */
+public record TaskChangesResp(List<TaskChangeResp> changes, long next, boolean hasNext) {}
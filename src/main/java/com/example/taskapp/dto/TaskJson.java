@@ -0,0 +1,54 @@
+package com.example.taskapp.dto;
+
+import java.io.IOException;
+import java.util.Set;
+
+import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskField;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Task を TaskResp と同じ形のJSONオブジェクトとして JsonGenerator へ直接書く。
+ * 一覧応答で行ごとの TaskResp 生成とリフレクションによる直列化を省くために使う。
+ * 日時は ISO-8601 文字列（write-dates-as-timestamps=false の TaskResp と同じ表現）。
+ */
+public final class TaskJson {
+
+    private TaskJson() {}
+
+    public static void write(JsonGenerator gen, Task t, Set<TaskField> fields) throws IOException {
+        gen.writeStartObject();
+        for (TaskField f : fields) {
+            gen.writeFieldName(f.jsonName());
+            switch (f) {
+                case ID -> number(gen, t.getId());
+                case TITLE -> gen.writeString(t.getTitle());
+                case DESCRIPTION -> gen.writeString(t.getDescription());
+                case STATUS -> string(gen, t.getStatus());
+                case DUE_DATE -> string(gen, t.getDueDate());
+                case VERSION -> number(gen, t.getVersion());
+                case CREATED_AT -> string(gen, t.getCreatedAt());
+                case UPDATED_AT -> string(gen, t.getUpdatedAt());
+            }
+        }
+        gen.writeEndObject();
+    }
+
+    static void writeArray(JsonGenerator gen, Iterable<Task> rows, Set<TaskField> fields) throws IOException {
+        gen.writeStartArray();
+        for (Task t : rows) {
+            write(gen, t, fields);
+        }
+        gen.writeEndArray();
+    }
+
+    private static void number(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) gen.writeNull();
+        else gen.writeNumber(value);
+    }
+
+    private static void string(JsonGenerator gen, Object value) throws IOException {
+        if (value == null) gen.writeNull();
+        else gen.writeString(value.toString());
+    }
+}
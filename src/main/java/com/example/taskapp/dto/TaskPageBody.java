@@ -0,0 +1,38 @@
+package com.example.taskapp.dto;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskField;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+/** PageResponse&lt;TaskResp&gt; と同じJSONを Task から直接書き出す一覧応答（fields で項目を絞れる） */
+public record TaskPageBody(List<Task> content, int page, int size, Long total, boolean hasNext, String totalMode,
+        Set<TaskField> fields) implements JsonSerializable {
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName("content");
+        TaskJson.writeArray(gen, content, fields);
+        gen.writeNumberField("page", page);
+        gen.writeNumberField("size", size);
+        gen.writeFieldName("total");
+        if (total == null) gen.writeNull();
+        else gen.writeNumber(total);
+        gen.writeBooleanField("hasNext", hasNext);
+        gen.writeStringField("totalMode", totalMode);
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.taskapp.dto;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import com.example.taskapp.model.TaskStatus;
+import com.example.taskapp.service.TaskSummary;
+
+/** ステータス別件数と期限切れ件数（dueDate が asOf より前で DONE 以外） */
+public record TaskSummaryResp(Map<TaskStatus, Long> byStatus, long total, long overdue, LocalDate asOf) {
+
+    public static TaskSummaryResp from(TaskSummary s) {
+        return new TaskSummaryResp(s.byStatus(), s.total(), s.overdue(), s.asOf());
+    }
+}
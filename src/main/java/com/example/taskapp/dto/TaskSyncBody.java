@@ -0,0 +1,35 @@
+package com.example.taskapp.dto;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskField;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+/** 差分同期の応答。changed は TaskResp と同じ形、deleted は削除済みの id。次回は token を渡す */
+public record TaskSyncBody(List<Task> changed, List<Long> deleted, String token, boolean hasMore)
+        implements JsonSerializable {
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName("changed");
+        TaskJson.writeArray(gen, changed, TaskField.ALL);
+        gen.writeArrayFieldStart("deleted");
+        for (Long id : deleted) gen.writeNumber(id);
+        gen.writeEndArray();
+        gen.writeStringField("token", token);
+        gen.writeBooleanField("hasMore", hasMore);
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+}
@@ -1,9 +1,11 @@
 package com.example.taskapp.exception;
 
+import java.sql.SQLTransientConnectionException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -34,6 +36,22 @@ public class GlobalExceptionHandler {
                 .body(new ApiError(ex.getMessage(), List.of()));
     }
 
+    // 503 Service Unavailable（同時実行の枠待ちがタイムアウト、または Hikari のチェックアウトが connection-timeout 内に完了しなかった）。
+    // Spring は Hikari の SQLTransientConnectionException を CannotGetJdbcConnectionException 等で包むため原因で照合する。
+    // DB 停止・認証失敗など他の理由で接続できない場合は 503 にしない
+    @ExceptionHandler({ ServiceBusyException.class, SQLTransientConnectionException.class })
+    public ResponseEntity<ApiError> handlePoolExhausted(Exception ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ApiError("混雑しています。時間をおいて再試行してください", List.of()));
+    }
+
+    // 400 Bad Request（カーソル不正など業務的な入力エラー）
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ApiError> handleBadRequest(BadRequestException ex) {
+        return ResponseEntity.badRequest().body(new ApiError(ex.getMessage(), List.of()));
+    }
+
     // 400 Bad Request（Bean Validation - @Valid ボディ）
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiError> handleMethodArgumentNotValid(MethodArgumentNotValidException ex) {
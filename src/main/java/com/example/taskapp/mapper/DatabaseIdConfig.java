@@ -0,0 +1,28 @@
+package com.example.taskapp.mapper;
+
+import java.util.Properties;
+
+import org.apache.ibatis.mapping.DatabaseIdProvider;
+import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * TaskMapper.xml の databaseId の解決。接続先の製品名（DatabaseMetaData#getDatabaseProductName）を
+ * h2 / postgresql に対応付ける。databaseId="postgresql" の文がある場合は PostgreSQL でそちらが使われ、
+ * それ以外（H2 を含む）は databaseId なしの文が使われる。対応表にない製品は databaseId が null になり、
+ * DatabaseStartupCheck が起動を止める。
+ */
+@Configuration(proxyBeanMethods = false)
+public class DatabaseIdConfig {
+
+    @Bean
+    DatabaseIdProvider databaseIdProvider() {
+        Properties vendors = new Properties();
+        vendors.setProperty("H2", "h2");
+        vendors.setProperty("PostgreSQL", "postgresql");
+        VendorDatabaseIdProvider provider = new VendorDatabaseIdProvider();
+        provider.setProperties(vendors);
+        return provider;
+    }
+}
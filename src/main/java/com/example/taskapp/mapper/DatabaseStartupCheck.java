@@ -0,0 +1,60 @@
+package com.example.taskapp.mapper;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 起動時の接続先の検証。TaskMapper.xml は H2 と PostgreSQL の文を持つ（DatabaseIdConfig）ため、
+ * どちらでもない（databaseId が解決されない）場合は最初の書き込みで失敗する前に起動を止める。
+ * 接続できない場合は Hikari の初期化（initialization-fail-timeout）で起動が失敗する。
+ * 接続先・プールの大きさ・文タイムアウトを1行で記録する（設定の取り違えの確認用）。
+ */
+@Slf4j
+@Component
+public class DatabaseStartupCheck implements InitializingBean {
+
+    private final DataSource dataSource;
+    private final SqlSessionFactory sqlSessionFactory;
+
+    public DatabaseStartupCheck(DataSource dataSource, SqlSessionFactory sqlSessionFactory) {
+        this.dataSource = dataSource;
+        this.sqlSessionFactory = sqlSessionFactory;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            DatabaseMetaData meta = conn.getMetaData();
+            String product = meta.getDatabaseProductName();
+            Configuration config = sqlSessionFactory.getConfiguration();
+            if (config.getDatabaseId() == null) {
+                throw new IllegalStateException("unsupported database: " + product
+                        + " (TaskMapper.xml has statements for H2 and PostgreSQL only)");
+            }
+            log.info("database {} {} ({}) at {}, pool={}, fetchSize={}, statementTimeout={}s",
+                    product, meta.getDatabaseProductVersion(), config.getDatabaseId(), meta.getURL(), poolSize(),
+                    config.getDefaultFetchSize(), config.getDefaultStatementTimeout());
+        }
+    }
+
+    private String poolSize() {
+        DataSource target = (dataSource instanceof DelegatingDataSource d) ? d.getTargetDataSource() : dataSource;
+        if (target instanceof HikariDataSource hikari) {
+            return hikari.getMinimumIdle() + ".." + hikari.getMaximumPoolSize();
+        }
+        return "n/a";
+    }
+}
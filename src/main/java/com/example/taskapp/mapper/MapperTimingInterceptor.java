@@ -0,0 +1,75 @@
+package com.example.taskapp.mapper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * マッパーのステートメント単位のSQL実行時間を taskapp.mapper.statement として記録する。
+ * tag: statement（TaskMapper.search 等）、command（SELECT / INSERT / UPDATE / DELETE）。
+ * BATCH エグゼキュータでは update は送信待ちに積むだけなので、実送信は statement=flush で記録する。
+ * queryCursor はカーソルを開くまでの時間で、読み出し時間は含まない。
+ */
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = { MappedStatement.class, Object.class }),
+        @Signature(type = Executor.class, method = "query",
+                args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class }),
+        @Signature(type = Executor.class, method = "query",
+                args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class }),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = { MappedStatement.class, Object.class, RowBounds.class }),
+        @Signature(type = Executor.class, method = "flushStatements", args = {})
+})
+public class MapperTimingInterceptor implements Interceptor {
+
+    static final String METRIC = "taskapp.mapper.statement";
+
+    private final MeterRegistry registry;
+
+    public MapperTimingInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            timer(invocation).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(Invocation invocation) {
+        Object[] args = invocation.getArgs();
+        if (args == null || args.length == 0) {
+            return Timer.builder(METRIC).tag("statement", "flush").tag("command", "BATCH").register(registry);
+        }
+        MappedStatement ms = (MappedStatement) args[0];
+        return Timer.builder(METRIC)
+                .tag("statement", shortId(ms.getId()))
+                .tag("command", ms.getSqlCommandType().name())
+                .register(registry);
+    }
+
+    // com.example.taskapp.mapper.TaskMapper.search -> TaskMapper.search
+    private static String shortId(String id) {
+        int method = id.lastIndexOf('.');
+        int type = method > 0 ? id.lastIndexOf('.', method - 1) : -1;
+        return id.substring(type + 1);
+    }
+}
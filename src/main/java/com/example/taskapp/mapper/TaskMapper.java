@@ -1,11 +1,20 @@
 package com.example.taskapp.mapper;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskChange;
+import com.example.taskapp.model.TaskCount;
+import com.example.taskapp.model.TaskPatch;
+import com.example.taskapp.model.TaskSearchCondition;
 import com.example.taskapp.model.TaskStatus;
 
 @Mapper
@@ -15,18 +24,91 @@ public interface TaskMapper {
 
     Task findById(@Param("id") Long id);
 
-    List<Task> search(
-            @Param("status") TaskStatus status,
-            @Param("q") String q,
-            @Param("offset") int offset,
-            @Param("size") int size);
+    /** columns の列のみ取得する（TaskField.columns で作った列名） */
+    Task findProjectedById(@Param("id") Long id, @Param("columns") List<String> columns);
 
-    long count(
-            @Param("status") TaskStatus status,
-            @Param("q") String q);
+    Long findVersionById(@Param("id") Long id);
+
+    List<Task> findByIds(@Param("ids") Collection<Long> ids);
+
+    /** 行ロック（FOR UPDATE）を取って読む。削除前の行を確定させるために使う */
+    List<Task> lockByIds(@Param("ids") Collection<Long> ids);
+
+    /** id が afterId より大きい行を id 昇順で最大 limit 件（差分同期の初回全件取得） */
+    List<Task> findAfterId(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    List<Task> search(TaskSearchCondition condition);
+
+    long count(TaskSearchCondition condition);
+
+    /** 条件に一致する全件を created_at DESC で逐次返す。トランザクション内で読み切って close すること */
+    Cursor<Task> export(TaskSearchCondition condition);
 
     int updateWithOptimisticLock(Task task);
 
+    /** 更新後の行を返す。version 不一致・対象なしは null */
+    Task updateWithOptimisticLockReturning(Task task);
+
+    /** updateWithOptimisticLockReturning と同じ更新を行い、変更前の行（updated_at は今回の更新時刻）を返す。version 不一致・対象なしは null */
+    Task updateWithOptimisticLockReturningPrevious(Task task);
+
+    /** patch で set された列のみ更新し、更新後の行を返す。version 不一致・対象なしは null */
+    Task patchWithOptimisticLockReturning(@Param("id") Long id, @Param("version") long version,
+            @Param("patch") TaskPatch patch);
+
     int deleteById(@Param("id") Long id);
-}
 
+    /** tasks から1行削除し、削除した行を返す。対象なしは null */
+    Task deleteByIdReturning(@Param("id") Long id);
+
+    /** tasks_archive から1行削除し、削除した行を返す。対象なしは null */
+    Task deleteArchivedByIdReturning(@Param("id") Long id);
+
+    /** updated_at が before より前の DONE の id を最大 limit 件、行ロックを取って返す（ロック中の行は飛ばす） */
+    List<Long> lockArchivable(@Param("before") Instant before, @Param("limit") int limit);
+
+    /** ids の DONE 行を tasks から tasks_archive へ移す。移した件数 */
+    int archiveByIds(@Param("ids") Collection<Long> ids);
+
+    /** ids のうち退避済みの行を tasks へ戻す。戻した件数 */
+    int restoreArchived(@Param("ids") Collection<Long> ids);
+
+    int insertTerms(@Param("taskId") Long taskId, @Param("terms") Map<String, Integer> terms);
+
+    int deleteTerms(@Param("taskId") Long taskId);
+
+    int deleteAllTerms();
+
+    int insertChange(TaskChange change);
+
+    /** since より後、upTo 以下の変更を seq 昇順で最大 limit 件 */
+    List<TaskChange> findChangesAfter(@Param("since") long since, @Param("upTo") long upTo, @Param("limit") int limit);
+
+    /** コミット済みの最大 seq。変更がなければ null */
+    Long findMaxChangeSeq();
+
+    /** ステータス別カウンタの slot 行に加算し、加算後の値を返す（行がなければ作る） */
+    Long addStatusCount(@Param("status") TaskStatus status, @Param("slot") int slot, @Param("delta") long delta);
+
+    /** 期限日別カウンタ（未完了のみ）の slot 行に加算し、加算後の値を返す（行がなければ作る） */
+    Long addDueCount(@Param("dueDate") LocalDate dueDate, @Param("slot") int slot, @Param("delta") long delta);
+
+    List<TaskCount> sumStatusCounts();
+
+    long sumDueCountsBefore(@Param("date") LocalDate date);
+
+    /** 照合用: 期限日別カウンタの全キー（slot を合計） */
+    List<TaskCount> sumDueCounts();
+
+    /** 照合用: 指定したキーのカウンタの slot 行だけをロックして読む（照合の加算が終わるまでそのキーへの加算を待たせる） */
+    List<TaskCount> lockStatusCounts(@Param("statuses") Collection<String> statuses);
+
+    List<TaskCount> lockDueCounts(@Param("dueDates") Collection<LocalDate> dueDates);
+
+    /** 照合用: tasks を数え直す */
+    List<TaskCount> countByStatus();
+
+    List<TaskCount> countOpenByDueDate();
+
+    int deleteEmptyDueCounts();
+}
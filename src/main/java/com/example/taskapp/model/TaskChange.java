@@ -0,0 +1,24 @@
+package com.example.taskapp.model;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** 変更ログ（task_changes）の1行。seq は INSERT 時に採番される */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskChange {
+    private Long seq;
+    private Long taskId;
+    private Op op;
+    /** 変更後の version（DELETED は null） */
+    private Long version;
+    private Instant changedAt;
+
+    public enum Op { CREATED, UPDATED, DELETED }
+}
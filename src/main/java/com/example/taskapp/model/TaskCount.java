@@ -0,0 +1,14 @@
+package com.example.taskapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** 集計行。bucket はステータス名または期限日（yyyy-MM-dd） */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskCount {
+    private String bucket;
+    private long cnt;
+}
@@ -0,0 +1,70 @@
+package com.example.taskapp.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import com.example.taskapp.exception.BadRequestException;
+
+/** 応答に含める項目（fields パラメータ）。jsonName は応答JSONのキー、column は tasks の列名 */
+public enum TaskField {
+    ID("id", "id"),
+    TITLE("title", "title"),
+    DESCRIPTION("description", "description"),
+    STATUS("status", "status"),
+    DUE_DATE("dueDate", "due_date"),
+    VERSION("version", "version"),
+    CREATED_AT("createdAt", "created_at"),
+    UPDATED_AT("updatedAt", "updated_at");
+
+    public static final Set<TaskField> ALL = Collections.unmodifiableSet(EnumSet.allOf(TaskField.class));
+
+    /** 項目指定に関わらず常に取得する列（ETag・カーソル・並び順で使う） */
+    public static final Set<TaskField> KEYS = Collections.unmodifiableSet(EnumSet.of(ID, VERSION, CREATED_AT));
+
+    private final String jsonName;
+    private final String column;
+
+    TaskField(String jsonName, String column) {
+        this.jsonName = jsonName;
+        this.column = column;
+    }
+
+    public String jsonName() {
+        return jsonName;
+    }
+
+    public String column() {
+        return column;
+    }
+
+    /** SELECT する列名（fields に KEYS を加えたもの）。列名は定数のみで、SQL にそのまま埋め込める */
+    public static List<String> columns(Set<TaskField> fields) {
+        EnumSet<TaskField> selected = EnumSet.copyOf(KEYS);
+        if (fields != null) selected.addAll(fields);
+        List<String> columns = new ArrayList<>(selected.size());
+        for (TaskField f : selected) columns.add(f.column);
+        return columns;
+    }
+
+    /** "id,title,status" 形式。未指定・空は全項目 */
+    public static Set<TaskField> parse(String value) {
+        if (value == null || value.isBlank()) return ALL;
+        EnumSet<TaskField> fields = EnumSet.noneOf(TaskField.class);
+        for (String name : value.split(",")) {
+            String n = name.trim();
+            if (n.isEmpty()) continue;
+            fields.add(fromJsonName(n));
+        }
+        return fields.isEmpty() ? ALL : fields;
+    }
+
+    private static TaskField fromJsonName(String name) {
+        for (TaskField f : values()) {
+            if (f.jsonName.equals(name)) return f;
+        }
+        throw new BadRequestException("fieldsの指定が不正です: " + name);
+    }
+}
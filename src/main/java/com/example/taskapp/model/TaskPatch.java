@@ -0,0 +1,82 @@
+package com.example.taskapp.model;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+import lombok.Getter;
+
+/**
+ * 部分更新（JSON Merge Patch）の内容。set した項目だけが対象で、null の set は「null に更新」を表す。
+ * 対象は title / description / status / dueDate のみ。
+ */
+@Getter
+public class TaskPatch {
+
+    private final Set<TaskField> fields = EnumSet.noneOf(TaskField.class);
+    private String title;
+    private String description;
+    private TaskStatus status;
+    private LocalDate dueDate;
+
+    public TaskPatch title(String value) {
+        this.title = value;
+        fields.add(TaskField.TITLE);
+        return this;
+    }
+
+    public TaskPatch description(String value) {
+        this.description = value;
+        fields.add(TaskField.DESCRIPTION);
+        return this;
+    }
+
+    public TaskPatch status(TaskStatus value) {
+        this.status = value;
+        fields.add(TaskField.STATUS);
+        return this;
+    }
+
+    public TaskPatch dueDate(LocalDate value) {
+        this.dueDate = value;
+        fields.add(TaskField.DUE_DATE);
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return fields.isEmpty();
+    }
+
+    // TaskMapper.xml の動的 SET 用
+    public boolean isTitleSet() {
+        return fields.contains(TaskField.TITLE);
+    }
+
+    public boolean isDescriptionSet() {
+        return fields.contains(TaskField.DESCRIPTION);
+    }
+
+    public boolean isStatusSet() {
+        return fields.contains(TaskField.STATUS);
+    }
+
+    public boolean isDueDateSet() {
+        return fields.contains(TaskField.DUE_DATE);
+    }
+
+    /** キーワード索引の対象列（title / description）を変えるか */
+    public boolean isTextChanged() {
+        return isTitleSet() || isDescriptionSet();
+    }
+
+    /** current と値が異なる項目だけを残した patch */
+    public TaskPatch changesFrom(Task current) {
+        TaskPatch changes = new TaskPatch();
+        if (isTitleSet() && !Objects.equals(title, current.getTitle())) changes.title(title);
+        if (isDescriptionSet() && !Objects.equals(description, current.getDescription())) changes.description(description);
+        if (isStatusSet() && status != current.getStatus()) changes.status(status);
+        if (isDueDateSet() && !Objects.equals(dueDate, current.getDueDate())) changes.dueDate(dueDate);
+        return changes;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.taskapp.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * TaskMapper.search / count の検索条件。
+ * q は LIKE 部分一致、terms は転置インデックス（task_terms）による全語一致で、どちらか一方を使う。
+ * 期限日の条件（dueFrom / dueTo / overdue）は (status, due_date, id) 索引の範囲で引けるよう、status の一覧（dueStatuses）で先頭列を束縛する。
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskSearchCondition {
+    private static final List<TaskStatus> OPEN_STATUSES = List.of(TaskStatus.OPEN, TaskStatus.DOING);
+
+    private TaskStatus status;
+    private String q;
+    private List<String> terms;
+    private TaskSort sort;
+
+    // 期限日の範囲（両端を含む）。期限なしの行は含まない
+    private LocalDate dueFrom;
+    private LocalDate dueTo;
+
+    // true なら期限切れ（未完了かつ due_date が today より前）のみ。today は呼び出し側が設定する
+    private boolean overdue;
+    private LocalDate today;
+
+    // キーセットページング: (created_at, id) がこれより前の行のみ
+    private Instant afterCreatedAt;
+    private Long afterId;
+
+    private int offset;
+    private int size;
+
+    // true なら id, version, created_at のみ取得（ETag 判定用）
+    private boolean keysOnly;
+
+    // 取得する項目（null は全項目）。TaskField.KEYS は常に含める
+    private Set<TaskField> fields;
+
+    public int getTermCount() {
+        return terms == null ? 0 : terms.size();
+    }
+
+    /**
+     * search の SELECT 列。両表を合わせて並べ直す場合に備え、並び順に使う列（status・sort の列）も含める
+     * （keysOnly・fields 指定でも外側の ORDER BY が参照できるように）
+     */
+    public List<String> getColumns() {
+        Set<TaskField> selected = EnumSet.noneOf(TaskField.class);
+        if (!keysOnly) selected.addAll(fields == null ? TaskField.ALL : fields);
+        if (status != null) selected.add(TaskField.STATUS);
+        if (sort != null) selected.add(sort.field());
+        return TaskField.columns(selected);
+    }
+
+    /** ORDER BY の列（status・関連度を除く） */
+    public String getOrderBy() {
+        return (sort == null ? TaskSort.CREATED_AT : sort).orderBy();
+    }
+
+    public boolean isOrderByRelevance() {
+        return sort == TaskSort.RELEVANCE && getTermCount() > 0;
+    }
+
+    /** tasks_archive（退避済みの DONE のみ）も読むか。OPEN / DOING に絞った検索と期限切れは tasks のみ */
+    public boolean isArchiveIncluded() {
+        return (status == null || status == TaskStatus.DONE) && !overdue;
+    }
+
+    /**
+     * 期限日で絞る場合の status の一覧（null は絞らない）。期限切れは未完了のみ（status=DONE との併用は0件）、
+     * status 指定なしの期限日範囲は全 status
+     */
+    public List<TaskStatus> getDueStatuses() {
+        if (overdue) return OPEN_STATUSES;
+        if (status == null && (dueFrom != null || dueTo != null)) return List.of(TaskStatus.values());
+        return null;
+    }
+
+    /** due_date の上限（これより前）。dueTo の翌日と、期限切れなら today の早い方 */
+    public LocalDate getDueUntil() {
+        LocalDate until = dueTo == null ? null : dueTo.plusDays(1);
+        if (overdue && (until == null || today.isBefore(until))) until = today;
+        return until;
+    }
+
+    /** 両表を読む場合に各表から読む件数（offset + size） */
+    public int getWindow() {
+        return offset + size;
+    }
+}
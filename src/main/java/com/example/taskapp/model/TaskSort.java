@@ -0,0 +1,44 @@
+package com.example.taskapp.model;
+
+import java.util.Locale;
+
+import com.example.taskapp.exception.BadRequestException;
+
+public enum TaskSort {
+    /** created_at DESC, id DESC（既定） */
+    CREATED_AT("created_at DESC, id DESC", TaskField.CREATED_AT),
+    /** キーワード一致度順（q 指定時かつ転置インデックス有効時のみ。それ以外は CREATED_AT と同じ） */
+    RELEVANCE("created_at DESC, id DESC", TaskField.CREATED_AT),
+    /** 期限日の近い順（期限なしは最後）, id */
+    DUE_DATE("due_date NULLS LAST, id", TaskField.DUE_DATE),
+    /** updated_at DESC, id DESC */
+    UPDATED_AT("updated_at DESC, id DESC", TaskField.UPDATED_AT);
+
+    private final String orderBy;
+    private final TaskField field;
+
+    TaskSort(String orderBy, TaskField field) {
+        this.orderBy = orderBy;
+        this.field = field;
+    }
+
+    /** ORDER BY の列（定数のみで、SQL にそのまま埋め込める）。索引 V2 / V7 / V8 の列順と揃える */
+    public String orderBy() {
+        return orderBy;
+    }
+
+    /** 並び順に使う項目（項目指定の検索でも SELECT に含める） */
+    public TaskField field() {
+        return field;
+    }
+
+    public static TaskSort from(String value) {
+        if (value == null || value.isEmpty()) return CREATED_AT;
+        String normalized = value.replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+        try {
+            return valueOf(normalized);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("sortの指定が不正です: " + value);
+        }
+    }
+}
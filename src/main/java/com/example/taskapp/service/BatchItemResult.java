@@ -0,0 +1,29 @@
+package com.example.taskapp.service;
+
+import com.example.taskapp.model.Task;
+
+/**
+ * 一括操作の1件分の結果。入力順に並ぶ。task は成功時の行（削除時・失敗時は null）
+ */
+public record BatchItemResult(Outcome outcome, Task task, String message) {
+
+    public enum Outcome {
+        CREATED,
+        UPDATED,
+        DELETED,
+        NOT_FOUND,
+        CONFLICT
+    }
+
+    public boolean succeeded() {
+        return outcome == Outcome.CREATED || outcome == Outcome.UPDATED || outcome == Outcome.DELETED;
+    }
+
+    static BatchItemResult ok(Outcome outcome, Task task) {
+        return new BatchItemResult(outcome, task, null);
+    }
+
+    static BatchItemResult failed(Outcome outcome, String message) {
+        return new BatchItemResult(outcome, null, message);
+    }
+}
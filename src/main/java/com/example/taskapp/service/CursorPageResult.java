@@ -0,0 +1,5 @@
+package com.example.taskapp.service;
+
+import java.util.List;
+
+public record CursorPageResult<T>(List<T> content, int size, String nextCursor) {}
@@ -2,5 +2,7 @@ package com.example.taskapp.service;
 
 import java.util.List;
 
-public record PageResult<T>(List<T> content, int page, int size, long total) {}
-
+/**
+ * total は totalMode=NONE のとき null。hasNext は全モードで有効。
+ */
+public record PageResult<T>(List<T> content, int page, int size, Long total, boolean hasNext, TotalMode totalMode) {}
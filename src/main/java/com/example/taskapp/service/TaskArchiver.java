@@ -0,0 +1,92 @@
+package com.example.taskapp.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.taskapp.mapper.TaskMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 完了済みタスクの退避（tasks → tasks_archive）。
+ * 更新されないまま after を過ぎた DONE の行を batch-size 件ずつ、1バッチ1トランザクションで移す。
+ * 候補は FOR UPDATE SKIP LOCKED で選ぶため、書き込み中の行は飛ばして次回に回し、書き込み側を待たせない
+ * （書き込み側が待つのは、退避中の1バッチに含まれる行に書き込む場合のみ）。
+ * 退避済みの行への書き込みは restore で tasks へ戻してから行う。退避・復帰は内容を変えないため、
+ * 変更ログ・件数カウンタ・エンティティキャッシュには反映しない。
+ */
+@Slf4j
+@Component
+public class TaskArchiver {
+
+    private final TaskMapper taskMapper;
+    private final TaskMetrics metrics;
+    private final TransactionTemplate tx;
+    private final boolean enabled;
+    private final Duration after;
+    private final int batchSize;
+
+    public TaskArchiver(TaskMapper taskMapper, TaskMetrics metrics, PlatformTransactionManager transactionManager,
+            @Value("${taskapp.archive.enabled:true}") boolean enabled,
+            @Value("${taskapp.archive.after:30d}") Duration after,
+            @Value("${taskapp.archive.batch-size:500}") int batchSize) {
+        if (after.isNegative()) throw new IllegalArgumentException("taskapp.archive.after must not be negative: " + after);
+        if (batchSize <= 0) throw new IllegalArgumentException("taskapp.archive.batch-size must be positive: " + batchSize);
+        this.taskMapper = taskMapper;
+        this.metrics = metrics;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.after = after;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${taskapp.archive.interval:10m}",
+            initialDelayString = "${taskapp.archive.interval:10m}")
+    public void archiveIfEnabled() {
+        if (!enabled) return;
+        long moved = archive(Instant.now().minus(after));
+        if (moved > 0) log.info("archived {} done tasks", moved);
+    }
+
+    /** updated_at が before より前の DONE を全て移す（ロック中で飛ばした行を除く）。戻り値は移した件数 */
+    public long archive(Instant before) {
+        long moved = 0;
+        while (true) {
+            int[] batch = tx.execute(status -> moveBatch(before));
+            moved += batch[1];
+            if (batch[0] < batchSize) break;
+        }
+        metrics.archiveMoved("archive", moved);
+        return moved;
+    }
+
+    // { 選んだ件数, 移した件数 }
+    private int[] moveBatch(Instant before) {
+        List<Long> ids = taskMapper.lockArchivable(before, batchSize);
+        if (ids.isEmpty()) return new int[] { 0, 0 };
+        return new int[] { ids.size(), taskMapper.archiveByIds(ids) };
+    }
+
+    /** 退避済みなら tasks へ戻す。呼び出し側の書き込みトランザクション内で、更新対象が tasks になかったときに呼ぶ */
+    public boolean restore(Long id) {
+        int restored = taskMapper.restoreArchived(List.of(id));
+        if (restored > 0) metrics.archiveMoved("restore", restored);
+        return restored > 0;
+    }
+
+    /**
+     * 一括処理用: 呼び出し側のマッパー（BATCH エグゼキュータ）で戻す。
+     * 実行は flush 時のため、呼び出し側で flush してから行を読み直すこと。
+     */
+    public void restore(TaskMapper mapper, Collection<Long> ids) {
+        mapper.restoreArchived(ids);
+    }
+}
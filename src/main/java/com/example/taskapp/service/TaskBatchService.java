@@ -0,0 +1,177 @@
+package com.example.taskapp.service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.taskapp.mapper.TaskMapper;
+import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskChange;
+import com.example.taskapp.service.BatchItemResult.Outcome;
+
+/**
+ * 作成・更新・削除の一括処理。MyBatis の BATCH エグゼキュータで JDBC バッチとして送る。
+ * 1リクエスト1トランザクションで、失敗した項目（楽観ロック競合・対象なし）以外は確定する。
+ * 同一トランザクション内で SIMPLE エグゼキュータと混在できないため、索引更新もバッチ用マッパーで行う。
+ */
+@Service
+@Transactional
+public class TaskBatchService {
+
+    private final SqlSessionTemplate batchSession;
+    private final TaskMapper batchMapper;
+    private final TaskTextIndex textIndex;
+    private final TaskEntityCache entityCache;
+    private final TaskMetrics metrics;
+    private final TaskVersionHistory history;
+    private final TaskChangeLog changeLog;
+    private final TaskCounters counters;
+    private final TaskArchiver archiver;
+
+    public TaskBatchService(SqlSessionFactory sqlSessionFactory, TaskTextIndex textIndex, TaskEntityCache entityCache,
+            TaskMetrics metrics, TaskVersionHistory history, TaskChangeLog changeLog, TaskCounters counters,
+            TaskArchiver archiver) {
+        this.batchSession = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+        this.batchMapper = batchSession.getMapper(TaskMapper.class);
+        this.textIndex = textIndex;
+        this.entityCache = entityCache;
+        this.metrics = metrics;
+        this.history = history;
+        this.changeLog = changeLog;
+        this.counters = counters;
+        this.archiver = archiver;
+    }
+
+    public List<BatchItemResult> createAll(List<Task> tasks) {
+        if (tasks.isEmpty()) return List.of();
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        for (Task t : tasks) {
+            t.setVersion(0L);
+            if (t.getCreatedAt() == null) t.setCreatedAt(now);
+            if (t.getUpdatedAt() == null) t.setUpdatedAt(now);
+            batchMapper.insert(t);
+        }
+        // flush で採番IDが各 Task に設定される
+        batchSession.flushStatements();
+
+        List<BatchItemResult> results = new ArrayList<>(tasks.size());
+        for (Task t : tasks) {
+            changeLog.record(batchMapper, TaskChange.Op.CREATED, t.getId(), t.getVersion());
+            textIndex.add(batchMapper, t);
+            entityCache.put(t);
+            history.record(t);
+            results.add(BatchItemResult.ok(Outcome.CREATED, t));
+        }
+        counters.apply(batchMapper, tasks.stream().map(t -> new TaskCounters.Change(null, t)).toList());
+        batchSession.flushStatements();
+        return results;
+    }
+
+    /** 各 Task の version を If-Match として楽観ロック更新する */
+    public List<BatchItemResult> updateAll(List<Task> tasks) {
+        if (tasks.isEmpty()) return List.of();
+        List<Long> ids = tasks.stream().map(Task::getId).distinct().toList();
+        // 件数カウンタの差分用に変更前の行をロックして読む（select は BATCH でも即時に実行される）
+        Map<Long, Task> before = lockRestoringArchived(ids);
+        for (Task t : tasks) {
+            batchMapper.updateWithOptimisticLock(t);
+        }
+        int[] counts = updateCounts(batchSession.flushStatements());
+
+        Map<Long, Task> current = byId(batchMapper.findByIds(ids));
+
+        List<BatchItemResult> results = new ArrayList<>(tasks.size());
+        List<TaskCounters.Change> changes = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            Task req = tasks.get(i);
+            Task row = current.get(req.getId());
+            if (counts[i] > 0) {
+                changeLog.record(batchMapper, TaskChange.Op.UPDATED, row.getId(), row.getVersion());
+                // 同じ id を複数回更新した場合、2件目以降は変更前の行が分からない
+                // （1件目の差分が最終行までを含むため合計は合うが、念のため照合に回す）
+                Task prev = before.get(req.getId());
+                if (prev != null && prev.getVersion().equals(req.getVersion())) {
+                    changes.add(new TaskCounters.Change(prev, row));
+                } else {
+                    counters.markDirty();
+                }
+                textIndex.replace(batchMapper, row);
+                entityCache.put(row);
+                history.record(row);
+                results.add(BatchItemResult.ok(Outcome.UPDATED, row));
+            } else if (row == null) {
+                results.add(BatchItemResult.failed(Outcome.NOT_FOUND, "Task not found: " + req.getId()));
+            } else {
+                metrics.conflict("batch");
+                results.add(BatchItemResult.failed(Outcome.CONFLICT,
+                        "Version conflict. expected=" + req.getVersion() + ", actual=" + row.getVersion()));
+            }
+        }
+        counters.apply(batchMapper, changes);
+        batchSession.flushStatements();
+        return results;
+    }
+
+    public List<BatchItemResult> deleteAll(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<Long, Task> before = lockRestoringArchived(ids.stream().distinct().toList());
+        for (Long id : ids) {
+            batchMapper.deleteById(id);
+        }
+        int[] counts = updateCounts(batchSession.flushStatements());
+
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        List<TaskCounters.Change> changes = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (counts[i] > 0) {
+                changeLog.record(batchMapper, TaskChange.Op.DELETED, ids.get(i), null);
+                textIndex.remove(batchMapper, ids.get(i));
+                changes.add(new TaskCounters.Change(before.get(ids.get(i)), null));
+                entityCache.evict(ids.get(i));
+                results.add(BatchItemResult.ok(Outcome.DELETED, null));
+            } else {
+                results.add(BatchItemResult.failed(Outcome.NOT_FOUND, "Task not found: " + ids.get(i)));
+            }
+        }
+        counters.apply(batchMapper, changes);
+        batchSession.flushStatements();
+        return results;
+    }
+
+    /**
+     * ids の行をロックして読む。tasks になかった id は退避済み（tasks_archive）なら tasks へ戻して読み直す。
+     * 戻す INSERT は更新・削除のバッチより前にここで flush する（updateCounts に混ざらないように）
+     */
+    private Map<Long, Task> lockRestoringArchived(List<Long> ids) {
+        Map<Long, Task> rows = byId(batchMapper.lockByIds(ids));
+        List<Long> missing = ids.stream().filter(id -> !rows.containsKey(id)).toList();
+        if (missing.isEmpty()) return rows;
+        archiver.restore(batchMapper, missing);
+        batchSession.flushStatements();
+        rows.putAll(byId(batchMapper.lockByIds(missing)));
+        return rows;
+    }
+
+    private static Map<Long, Task> byId(List<Task> rows) {
+        return rows.stream().collect(Collectors.toMap(Task::getId, Function.identity()));
+    }
+
+    // 同一SQLの連続はひとつの BatchResult にまとまるため、実行順に連結する
+    private static int[] updateCounts(List<BatchResult> batchResults) {
+        return batchResults.stream()
+                .flatMapToInt(r -> Arrays.stream(r.getUpdateCounts()))
+                .toArray();
+    }
+}
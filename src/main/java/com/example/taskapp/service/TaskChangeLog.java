@@ -0,0 +1,117 @@
+package com.example.taskapp.service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.taskapp.mapper.TaskMapper;
+import com.example.taskapp.model.TaskChange;
+
+/**
+ * 変更ログ（task_changes）の書き込みと読み出し。
+ * 書き込みは呼び出し側のトランザクション内で行い、コミット後に Committed イベントを発行する
+ * （SSE 配信の契機。書き込んだ最大の seq を持ち、リクエストのスレッドで発行されるため応答ヘッダにも使える）。
+ * seq は INSERT 順に採番されコミット順とは一致しないため、読み出しは未確定のトランザクションが書いた seq の
+ * 手前まで（committedSeq）に制限する。後から小さい seq がコミットされて since 指定の読み出しで取りこぼすのを防ぐ。
+ * 未確定分の追跡はプロセス内のため、複数インスタンスで書き込む構成では他ノードの遅延コミットは保証外。
+ */
+@Component
+public class TaskChangeLog {
+
+    private final TaskMapper taskMapper;
+    private final ApplicationEventPublisher events;
+
+    // 未確定トランザクションごとの変更（seq は INSERT 前は null）。this で同期する
+    private final List<List<TaskChange>> inFlight = new ArrayList<>();
+    private long committedSeq;
+
+    public TaskChangeLog(TaskMapper taskMapper, ApplicationEventPublisher events) {
+        this.taskMapper = taskMapper;
+        this.events = events;
+    }
+
+    /** 変更ログのコミット通知。seq はそのトランザクションが書き込んだ最大の seq */
+    public record Committed(long seq) {}
+
+    public void record(TaskChange.Op op, Long taskId, Long version) {
+        record(taskMapper, op, taskId, version);
+    }
+
+    /** 一括処理用: 呼び出し側のマッパー（BATCH エグゼキュータ）で書き込む。seq は flush 時に設定される */
+    public void record(TaskMapper mapper, TaskChange.Op op, Long taskId, Long version) {
+        TaskChange change = new TaskChange(null, taskId, op, version, Instant.now().truncatedTo(ChronoUnit.MICROS));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            mapper.insertChange(change);
+            events.publishEvent(new Committed(change.getSeq()));
+            return;
+        }
+        // seq の採番より先に登録する（採番済みで未登録の瞬間に committedSeq が先へ進まないように）
+        List<TaskChange> pending = pendingChanges();
+        synchronized (this) {
+            pending.add(change);
+        }
+        mapper.insertChange(change);
+    }
+
+    /**
+     * 取りこぼしなく読める seq の上限。これ以下の seq は確定済み（コミットまたはロールバック）で、
+     * 今後この値以下の変更が現れることはない。単調に増加する。
+     */
+    public long committedSeq() {
+        // 未確定分の確認より先に読む（読んだ後に採番された seq はこの値より大きい）
+        Long max = taskMapper.findMaxChangeSeq();
+        long bound = (max == null) ? 0 : max;
+        synchronized (this) {
+            for (List<TaskChange> pending : inFlight) {
+                for (TaskChange c : pending) {
+                    // 採番直後で seq が未反映（BATCH は flush 前）: どこまで確定したか分からないため前回値に留める
+                    if (c.getSeq() == null) return committedSeq;
+                    bound = Math.min(bound, c.getSeq() - 1);
+                }
+            }
+            committedSeq = Math.max(committedSeq, bound);
+            return committedSeq;
+        }
+    }
+
+    /** since より後の確定済みの変更を seq 昇順で最大 limit 件 */
+    public List<TaskChange> changesAfter(long since, int limit) {
+        long upTo = committedSeq();
+        if (since >= upTo) return List.of();
+        return taskMapper.findChangesAfter(since, upTo, limit);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TaskChange> pendingChanges() {
+        List<TaskChange> pending = (List<TaskChange>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) return pending;
+
+        List<TaskChange> created = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        synchronized (this) {
+            inFlight.add(created);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TaskChangeLog.this);
+                synchronized (TaskChangeLog.this) {
+                    inFlight.removeIf(p -> p == created);
+                }
+                if (status == STATUS_COMMITTED) {
+                    long seq = created.stream().map(TaskChange::getSeq).filter(Objects::nonNull)
+                            .mapToLong(Long::longValue).max().orElse(0);
+                    events.publishEvent(new Committed(seq));
+                }
+            }
+        });
+        return created;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.taskapp.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.taskapp.model.TaskSearchCondition;
+import com.example.taskapp.model.TaskStatus;
+
+/**
+ * 検索条件（status, q / terms, 期限日の条件）ごとのCOUNT結果を短いTTLで保持する。
+ * total=estimate 用の概算値であり、TTL内の更新は反映されない。
+ */
+@Component
+public class TaskCountCache {
+
+    static final int MAX_ENTRIES = 1000;
+
+    private final long ttlNanos;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    public TaskCountCache(@Value("${taskapp.search.count-cache-ttl:5s}") Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public long get(TaskSearchCondition cond, LongSupplier loader) {
+        Key key = new Key(cond.getStatus(), cond.getQ() == null ? "" : cond.getQ(), cond.getTerms(),
+                cond.getDueFrom(), cond.getDueUntil(), cond.isOverdue());
+        long now = System.nanoTime();
+        Entry e = entries.get(key);
+        if (e != null && now - e.loadedAt() < ttlNanos) {
+            return e.count();
+        }
+        long count = loader.getAsLong();
+        if (entries.size() >= MAX_ENTRIES) {
+            entries.values().removeIf(old -> now - old.loadedAt() >= ttlNanos);
+            if (entries.size() >= MAX_ENTRIES) entries.clear();
+        }
+        entries.put(key, new Entry(count, now));
+        return count;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    // 期限切れの基準日（today）は dueUntil に含まれる
+    private record Key(TaskStatus status, String q, List<String> terms, LocalDate dueFrom, LocalDate dueUntil, boolean overdue) {}
+
+    private record Entry(long count, long loadedAt) {}
+}
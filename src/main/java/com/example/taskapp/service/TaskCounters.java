@@ -0,0 +1,203 @@
+package com.example.taskapp.service;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.taskapp.mapper.TaskMapper;
+import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskChange;
+import com.example.taskapp.model.TaskCount;
+import com.example.taskapp.model.TaskStatus;
+
+/**
+ * ステータス別・期限日別（未完了のみ）の件数カウンタ（task_status_counts / task_due_counts）。
+ * 作成・更新・削除の変更前後の行から差分を求め、書き込みと同じトランザクションで加算する。
+ * 同じ行への加算で書き込みが直列化しないよう、各キーを slots 個の行に分けて乱数で選んだ行へ加算し、読み出し時に合計する。
+ * 変更前の行が確定できなかった書き込みは加算せず、照合（reconcile）を前倒しする。
+ * 照合は定期的にも実行し、tasks を数え直して差分をカウンタへ反映する（直接のSQL操作などによるずれの修復）。
+ * 照合は書き込みを数え直しの間待たせない（reconcile 参照）。
+ */
+@Component
+public class TaskCounters {
+
+    // 照合中に変更されたタスクをこれより多く数えたら、全キーを次回に回す
+    private static final int TOUCHED_LIMIT = 1000;
+
+    private final TaskMapper taskMapper;
+    private final TaskChangeLog changeLog;
+    private final int slots;
+    private final TaskMetrics metrics;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    public TaskCounters(TaskMapper taskMapper, TaskChangeLog changeLog, TaskMetrics metrics,
+            @Value("${taskapp.summary.counter-slots:16}") int slots) {
+        if (slots <= 0) throw new IllegalArgumentException("taskapp.summary.counter-slots must be positive: " + slots);
+        this.taskMapper = taskMapper;
+        this.changeLog = changeLog;
+        this.metrics = metrics;
+        this.slots = slots;
+    }
+
+    /** 書き込み1件の変更前後（作成は before=null、削除は after=null） */
+    public record Change(Task before, Task after) {}
+
+    public void apply(Task before, Task after) {
+        apply(taskMapper, List.of(new Change(before, after)));
+    }
+
+    /** 一括処理用: 呼び出し側のマッパーで、全件の差分をキーごとにまとめて加算する */
+    public void apply(TaskMapper mapper, List<Change> changes) {
+        Map<TaskStatus, Long> byStatus = new EnumMap<>(TaskStatus.class);
+        Map<LocalDate, Long> byDue = new HashMap<>();
+        for (Change c : changes) {
+            add(byStatus, byDue, c.before(), -1);
+            add(byStatus, byDue, c.after(), 1);
+        }
+        int slot = ThreadLocalRandom.current().nextInt(slots);
+        byStatus.forEach((status, delta) -> {
+            if (delta != 0) retryOnce(() -> mapper.addStatusCount(status, slot, delta));
+        });
+        byDue.forEach((date, delta) -> {
+            if (delta != 0) retryOnce(() -> mapper.addDueCount(date, slot, delta));
+        });
+    }
+
+    /** 変更前の行が分からず差分を出せなかった（または照合でキーを除外した）。次の reconcileIfDirty で数え直す */
+    public void markDirty() {
+        dirty.set(true);
+    }
+
+    public TaskSummary summary(LocalDate today) {
+        Map<TaskStatus, Long> byStatus = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus s : TaskStatus.values()) byStatus.put(s, 0L);
+        for (TaskCount c : taskMapper.sumStatusCounts()) byStatus.put(TaskStatus.valueOf(c.getBucket()), c.getCnt());
+        long total = byStatus.values().stream().mapToLong(Long::longValue).sum();
+        return new TaskSummary(byStatus, total, taskMapper.sumDueCountsBefore(today), today);
+    }
+
+    @Scheduled(fixedDelayString = "${taskapp.summary.dirty-check-interval:10s}",
+            initialDelayString = "${taskapp.summary.dirty-check-interval:10s}")
+    @Transactional
+    public void reconcileIfDirty() {
+        if (dirty.compareAndSet(true, false)) reconcile();
+    }
+
+    /**
+     * tasks を数え直し、カウンタとのずれを slot 0 に加算する。戻り値は加算したずれの絶対値の合計。
+     * 書き込みは tasks とカウンタを同じトランザクションで変えるため「数え直し − カウンタ」は書き込みでは変わらない。
+     * そこで数え直し（全表走査）はロックを取らずに行い、ずれのあったキーのカウンタ行だけを最後にロックして
+     * 数え直し前の値から動いていないことを確かめてから加算する（書き込みが待たされるのはこの間だけ）。
+     * 数え直しの前に変更ログの確定位置を記録し、それ以降に変更されたタスクの現在のキーも除外する
+     * （同じキーへの増減が打ち消し合ってカウンタの値に現れない場合）。除外したキーは次の reconcileIfDirty で照合し直す。
+     */
+    @Scheduled(fixedDelayString = "${taskapp.summary.reconcile-interval:1h}",
+            initialDelayString = "${taskapp.summary.reconcile-interval:1h}")
+    @Transactional
+    public long reconcile() {
+        long watermark = changeLog.committedSeq();
+        Map<String, Long> statusCounted = sum(taskMapper.sumStatusCounts());
+        Map<String, Long> dueCounted = sum(taskMapper.sumDueCounts());
+        Map<String, Long> statusDrift = drift(statusCounted, sum(taskMapper.countByStatus()));
+        Map<String, Long> dueDrift = drift(dueCounted, sum(taskMapper.countOpenByDueDate()));
+
+        long repaired = 0;
+        if (!statusDrift.isEmpty() || !dueDrift.isEmpty()) {
+            Map<String, Long> statusLocked = statusDrift.isEmpty() ? Map.of()
+                    : sum(taskMapper.lockStatusCounts(statusDrift.keySet()));
+            Map<String, Long> dueLocked = dueDrift.isEmpty() ? Map.of()
+                    : sum(taskMapper.lockDueCounts(dueDrift.keySet().stream().map(LocalDate::parse).toList()));
+            Touched touched = touchedAfter(watermark);
+            repaired += repair(statusDrift, statusCounted, statusLocked, touched.all() ? null : touched.statuses(),
+                    (k, d) -> taskMapper.addStatusCount(TaskStatus.valueOf(k), 0, d));
+            repaired += repair(dueDrift, dueCounted, dueLocked, touched.all() ? null : touched.dueDates(),
+                    (k, d) -> taskMapper.addDueCount(LocalDate.parse(k), 0, d));
+        }
+        taskMapper.deleteEmptyDueCounts();
+        metrics.counterDrift(repaired);
+        return repaired;
+    }
+
+    /** 照合の除外対象: 確定位置より後に変更されたタスクの現在のキー。all は件数が多すぎて全キーを除外する */
+    private record Touched(boolean all, Set<String> statuses, Set<String> dueDates) {}
+
+    private Touched touchedAfter(long watermark) {
+        List<TaskChange> changes = changeLog.changesAfter(watermark, TOUCHED_LIMIT);
+        if (changes.size() >= TOUCHED_LIMIT) return new Touched(true, Set.of(), Set.of());
+        Set<String> statuses = new HashSet<>();
+        Set<String> dueDates = new HashSet<>();
+        if (!changes.isEmpty()) {
+            for (Task t : taskMapper.findByIds(changes.stream().map(TaskChange::getTaskId).distinct().toList())) {
+                statuses.add(t.getStatus().name());
+                if (t.getStatus() != TaskStatus.DONE && t.getDueDate() != null) dueDates.add(t.getDueDate().toString());
+            }
+        }
+        return new Touched(false, statuses, dueDates);
+    }
+
+    // 未完了かつ期限日ありの行だけが期限日別カウンタの対象
+    private static void add(Map<TaskStatus, Long> byStatus, Map<LocalDate, Long> byDue, Task t, long sign) {
+        if (t == null) return;
+        byStatus.merge(t.getStatus(), sign, Long::sum);
+        if (t.getStatus() != TaskStatus.DONE && t.getDueDate() != null) byDue.merge(t.getDueDate(), sign, Long::sum);
+    }
+
+    private static Map<String, Long> sum(List<TaskCount> rows) {
+        Map<String, Long> m = new HashMap<>();
+        for (TaskCount c : rows) m.merge(c.getBucket(), c.getCnt(), Long::sum);
+        return m;
+    }
+
+    // 数え直し − カウンタ（0 のキーは含めない）
+    private static Map<String, Long> drift(Map<String, Long> counted, Map<String, Long> actual) {
+        Map<String, Long> drift = new HashMap<>();
+        Set<String> keys = new HashSet<>(counted.keySet());
+        keys.addAll(actual.keySet());
+        for (String key : keys) {
+            long d = actual.getOrDefault(key, 0L) - counted.getOrDefault(key, 0L);
+            if (d != 0) drift.put(key, d);
+        }
+        return drift;
+    }
+
+    // ロック後の値が数え直し前と同じで、変更されたタスクのキーでもなければ加算する。touched が null なら全て除外
+    private long repair(Map<String, Long> drift, Map<String, Long> counted, Map<String, Long> locked,
+            Set<String> touched, BiConsumer<String, Long> add) {
+        long repaired = 0;
+        for (Map.Entry<String, Long> e : drift.entrySet()) {
+            String key = e.getKey();
+            boolean moved = locked.getOrDefault(key, 0L).longValue() != counted.getOrDefault(key, 0L).longValue();
+            if (moved || touched == null || touched.contains(key)) {
+                markDirty();
+                continue;
+            }
+            add.accept(key, e.getValue());
+            repaired += Math.abs(e.getValue());
+        }
+        return repaired;
+    }
+
+    // 同じキー・slot の行を2つのトランザクションが同時に初めて作ると片方が一意制約違反になる。
+    // その時点で相手はコミット済みなので、再実行すれば UPDATE として成功する
+    private static void retryOnce(Supplier<Long> add) {
+        try {
+            add.get();
+        } catch (DuplicateKeyException e) {
+            add.get();
+        }
+    }
+}
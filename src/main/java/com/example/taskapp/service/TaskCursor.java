@@ -0,0 +1,39 @@
+package com.example.taskapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.example.taskapp.exception.BadRequestException;
+import com.example.taskapp.model.Task;
+
+/**
+ * キーセットページング用のカーソル（created_at, id）。
+ * クライアントには不透明な文字列（Base64URL）として渡す。
+ */
+public record TaskCursor(Instant createdAt, long id) {
+
+    private static final char SEPARATOR = ',';
+
+    public static TaskCursor of(Task t) {
+        return new TaskCursor(t.getCreatedAt(), t.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TaskCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf(SEPARATOR);
+            if (sep < 0) throw new IllegalArgumentException("separator not found");
+            return new TaskCursor(Instant.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("カーソルが不正です: " + cursor);
+        }
+    }
+}
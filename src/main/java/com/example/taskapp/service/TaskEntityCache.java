@@ -0,0 +1,122 @@
+package com.example.taskapp.service;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.taskapp.model.Task;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * findById の結果を保持するプロセス内キャッシュ（件数上限＋TTL）。
+ * エントリは version 付きで、より古い version の行が新しい行を上書きすることはない。
+ * 削除は墓標（version=Long.MAX_VALUE）で記録し、削除前に読まれた行の再登録を防ぐ。
+ * 書き込み系の反映はトランザクションのコミット後に行う。
+ * 複数インスタンス構成では他ノードの更新は TTL 経過まで反映されない点に注意。
+ */
+@Component
+public class TaskEntityCache {
+
+    private static final long TOMBSTONE_VERSION = Long.MAX_VALUE;
+
+    private final boolean enabled;
+    private final Cache<Long, Entry> cache;
+
+    public TaskEntityCache(
+            @Value("${taskapp.cache.task.enabled:true}") boolean enabled,
+            @Value("${taskapp.cache.task.max-size:10000}") long maxSize,
+            @Value("${taskapp.cache.task.ttl:60s}") Duration ttl,
+            MeterRegistry registry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // cache.gets{cache=task.entity,result=hit|miss}・cache.evictions・cache.size を公開する
+        CaffeineCacheMetrics.monitor(registry, cache, "task.entity");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** キャッシュ済みならそれを、なければ loader で読み込んで登録する。存在しなければ null */
+    public Task get(Long id, Function<Long, Task> loader) {
+        if (!enabled) return loader.apply(id);
+        Entry e = cache.getIfPresent(id);
+        if (e != null) return e.task();
+        Task loaded = loader.apply(id);
+        if (loaded != null) offer(loaded);
+        return loaded;
+    }
+
+    /**
+     * キャッシュ済みならそれを、なければ loader の結果を登録せずに返す。
+     * 一部の列のみ読む loader（項目指定の取得）で不完全な行をキャッシュに入れないために使う。
+     */
+    public Task getOrLoadUncached(Long id, Function<Long, Task> loader) {
+        if (!enabled) return loader.apply(id);
+        Entry e = cache.getIfPresent(id);
+        if (e != null) return e.task();
+        return loader.apply(id);
+    }
+
+    /**
+     * version のみ取得する。キャッシュ済みならその version、なければ loader（SELECT version）を呼ぶ。
+     * 行は登録しない。存在しなければ null
+     */
+    public Long version(Long id, Function<Long, Long> loader) {
+        if (!enabled) return loader.apply(id);
+        Entry e = cache.getIfPresent(id);
+        if (e != null) return e.task() != null ? e.version() : null;
+        return loader.apply(id);
+    }
+
+    /** キャッシュ済みの行。なければ null（読み込みはせず、ヒット率の統計にも数えない） */
+    public Task peek(Long id) {
+        if (!enabled) return null;
+        Entry e = cache.asMap().get(id);
+        return e != null ? e.task() : null;
+    }
+
+    /** 作成・更新後の行をコミット後に登録する */
+    public void put(Task task) {
+        if (!enabled || task == null) return;
+        TransactionHooks.afterCommit(() -> offer(task));
+    }
+
+    /** 削除をコミット後に墓標として記録する */
+    public void evict(Long id) {
+        if (!enabled) return;
+        TransactionHooks.afterCommit(() -> cache.put(id, new Entry(null, TOMBSTONE_VERSION)));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    // 既存エントリより新しい（または同じ）version のときだけ置き換える
+    private void offer(Task task) {
+        long version = task.getVersion() != null ? task.getVersion() : 0L;
+        cache.asMap().merge(task.getId(), new Entry(task, version),
+                (old, neu) -> neu.version() >= old.version() ? neu : old);
+    }
+
+    private record Entry(Task task, long version) {}
+}
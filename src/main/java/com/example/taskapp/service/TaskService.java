@@ -1,8 +1,19 @@
 package com.example.taskapp.service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -10,8 +21,13 @@ import com.example.taskapp.exception.NotFoundException;
 import com.example.taskapp.exception.OptimisticLockException;
 import com.example.taskapp.mapper.TaskMapper;
 import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskChange;
+import com.example.taskapp.model.TaskField;
+import com.example.taskapp.model.TaskPatch;
+import com.example.taskapp.model.TaskSearchCondition;
 import com.example.taskapp.model.TaskStatus;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -20,25 +36,66 @@ import lombok.RequiredArgsConstructor;
 public class TaskService {
 
     private final TaskMapper taskMapper;
+    private final TaskCountCache countCache;
+    private final TaskTextIndex textIndex;
+    private final TaskEntityCache entityCache;
+    private final TaskMetrics metrics;
+    private final TaskVersionHistory history;
+    private final TaskChangeLog changeLog;
+    private final TaskCounters counters;
+    private final TaskArchiver archiver;
 
+    /**
+     * INSERT 1文のみ。version・タイムスタンプはここで確定させ（TIMESTAMP の精度に合わせてマイクロ秒に丸める）、
+     * 採番IDを設定した引数をそのまま返す。
+     */
+    @Timed(value = TaskMetrics.OPERATION, extraTags = { "op", "create" })
     @Transactional
     public Task create(Task task) {
         if (task == null) throw new IllegalArgumentException("task must not be null");
         if (task.getVersion() == null) task.setVersion(0L);
-        Instant now = Instant.now();
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
         if (task.getCreatedAt() == null) task.setCreatedAt(now);
         if (task.getUpdatedAt() == null) task.setUpdatedAt(now);
 
         taskMapper.insert(task);
-        return taskMapper.findById(task.getId());
+        changeLog.record(TaskChange.Op.CREATED, task.getId(), task.getVersion());
+        counters.apply(null, task);
+        textIndex.add(task);
+        entityCache.put(task);
+        history.record(task);
+        return task;
     }
 
+    @Timed(value = TaskMetrics.OPERATION, extraTags = { "op", "get" })
     public Task get(Long id) {
-        Task t = taskMapper.findById(id);
+        Task t = entityCache.get(id, taskMapper::findById);
         if (t == null) throw new NotFoundException("Task not found: " + id);
+        history.record(t);
         return t;
     }
 
+    /**
+     * fields の項目（と TaskField.KEYS）のみ返す。全項目なら get(id) と同じ。
+     * キャッシュ済みなら全列の行をそのまま返し、未キャッシュなら指定列のみ SELECT する（結果はキャッシュしない）。
+     */
+    @Timed(value = TaskMetrics.OPERATION, extraTags = { "op", "get" })
+    public Task get(Long id, Set<TaskField> fields) {
+        if (fields == null || fields.containsAll(TaskField.ALL)) return get(id);
+        List<String> columns = TaskField.columns(fields);
+        Task t = entityCache.getOrLoadUncached(id, key -> taskMapper.findProjectedById(key, columns));
+        if (t == null) throw new NotFoundException("Task not found: " + id);
+        return t;
+    }
+
+    /** 条件付きGET用に version のみ返す（行全体は読まない） */
+    public long getVersion(Long id) {
+        Long v = entityCache.version(id, taskMapper::findVersionById);
+        if (v == null) throw new NotFoundException("Task not found: " + id);
+        return v;
+    }
+
+    @Timed(value = TaskMetrics.OPERATION, extraTags = { "op", "update" })
     @Transactional
     public Task update(Long id, long ifMatchVersion, Task task) {
         if (task == null) throw new IllegalArgumentException("task must not be null");
@@ -51,32 +108,281 @@ public class TaskService {
         toUpdate.setDueDate(task.getDueDate());
         toUpdate.setVersion(ifMatchVersion);
 
-        int updated = taskMapper.updateWithOptimisticLock(toUpdate);
-        if (updated == 0) {
-            Task existing = taskMapper.findById(id);
-            if (existing == null) {
-                throw new NotFoundException("Task not found: " + id);
-            }
-            throw new OptimisticLockException(
-                    "Version conflict. expected=" + ifMatchVersion + ", actual=" + existing.getVersion());
+        TaskCounters.Change change = updateReturning(toUpdate);
+        // 退避済み（tasks_archive）の行は tasks へ戻してから更新する
+        if (change == null && archiver.restore(id)) change = updateReturning(toUpdate);
+        if (change == null) throw notUpdated(id, ifMatchVersion, taskMapper.findVersionById(id));
+        Task after = change.after();
+        changeLog.record(TaskChange.Op.UPDATED, id, after.getVersion());
+        counters.apply(change.before(), after);
+        textIndex.replace(after);
+        entityCache.put(after);
+        history.record(after);
+        return after;
+    }
+
+    /**
+     * 部分更新。現在の行と値が異なる項目の列だけを UPDATE する。
+     * 実質的な変更がなければ書き込みも version の加算も行わず、現在の行を返す（DB の version が If-Match と一致する場合のみ）。
+     */
+    @Timed(value = TaskMetrics.OPERATION, extraTags = { "op", "patch" })
+    @Transactional
+    public Task patch(Long id, long ifMatchVersion, TaskPatch patch) {
+        if (patch == null) throw new IllegalArgumentException("patch must not be null");
+
+        Task current = entityCache.get(id, taskMapper::findById);
+        // キャッシュが他ノードの更新より古い可能性があるため、不一致時は DB で確かめる
+        if (current != null && current.getVersion() != ifMatchVersion) current = taskMapper.findById(id);
+        if (current == null || current.getVersion() != ifMatchVersion) {
+            throw notUpdated(id, ifMatchVersion, current == null ? null : current.getVersion());
+        }
+
+        TaskPatch changes = patch.changesFrom(current);
+        if (changes.isEmpty()) {
+            // 書き込みの version 条件で確かめられないため、キャッシュの行が他ノードの更新より古くないかを DB で確かめる
+            Long version = taskMapper.findVersionById(id);
+            if (version == null || version != ifMatchVersion) throw notUpdated(id, ifMatchVersion, version);
+            return current;
+        }
+
+        Task after = taskMapper.patchWithOptimisticLockReturning(id, ifMatchVersion, changes);
+        if (after == null && archiver.restore(id)) {
+            after = taskMapper.patchWithOptimisticLockReturning(id, ifMatchVersion, changes);
+        }
+        if (after == null) throw notUpdated(id, ifMatchVersion, taskMapper.findVersionById(id));
+        changeLog.record(TaskChange.Op.UPDATED, id, after.getVersion());
+        counters.apply(current, after);
+        if (changes.isTextChanged()) textIndex.replace(after);
+        entityCache.put(after);
+        history.record(after);
+        return after;
+    }
+
+    /**
+     * 正常系は UPDATE ... RETURNING 相当の1文で更新し、変更前後の行を返す（件数カウンタの差分用）。
+     * If-Match の version の行がキャッシュ・履歴にあればそれが変更前の行で（同じ version の内容は変わらない）、
+     * 更新後の行を FINAL TABLE で得る。なければ変更前の行を OLD TABLE で得て、更新後の行を組み立てる
+     * （どちらも1文で、更新前に行ロックを取らない）。更新0件なら null
+     */
+    private TaskCounters.Change updateReturning(Task toUpdate) {
+        Task known = knownRow(toUpdate.getId(), toUpdate.getVersion());
+        if (known != null) {
+            Task after = taskMapper.updateWithOptimisticLockReturning(toUpdate);
+            return after == null ? null : new TaskCounters.Change(known, after);
         }
-        return taskMapper.findById(id);
+        Task previous = taskMapper.updateWithOptimisticLockReturningPrevious(toUpdate);
+        if (previous == null) return null;
+        Task after = Task.builder()
+                .id(previous.getId())
+                .title(toUpdate.getTitle())
+                .description(toUpdate.getDescription())
+                .status(toUpdate.getStatus())
+                .dueDate(toUpdate.getDueDate())
+                .version(previous.getVersion() + 1)
+                .createdAt(previous.getCreatedAt())
+                .updatedAt(previous.getUpdatedAt())
+                .build();
+        return new TaskCounters.Change(previous, after);
+    }
+
+    // version の時点の行（キャッシュ・履歴にあるもののみ）
+    private Task knownRow(Long id, long version) {
+        Task cached = entityCache.peek(id);
+        if (cached != null && cached.getVersion() == version) return cached;
+        return history.find(id, version);
     }
 
+    // 更新0件の理由: 行がなければ404、version 不一致なら409
+    private RuntimeException notUpdated(Long id, long expected, Long actual) {
+        if (actual == null) return new NotFoundException("Task not found: " + id);
+        metrics.conflict("single");
+        return new OptimisticLockException("Version conflict. expected=" + expected + ", actual=" + actual);
+    }
+
+    @Timed(value = TaskMetrics.OPERATION, extraTags = { "op", "delete" })
     @Transactional
     public void delete(Long id) {
-        int deleted = taskMapper.deleteById(id);
-        if (deleted == 0) throw new NotFoundException("Task not found: " + id);
+        // 件数カウンタの差分用の削除前の行は DELETE 自体が返す（1文）。なければ退避済みの行を消す
+        Task before = taskMapper.deleteByIdReturning(id);
+        if (before == null) before = taskMapper.deleteArchivedByIdReturning(id);
+        if (before == null) throw new NotFoundException("Task not found: " + id);
+        textIndex.remove(id);
+        changeLog.record(TaskChange.Op.DELETED, id, null);
+        counters.apply(before, null);
+        entityCache.evict(id);
+    }
+
+    /** ステータス別件数と期限切れ件数。件数カウンタを合計するだけで、tasks は読まない */
+    @Timed(value = TaskMetrics.OPERATION, extraTags = { "op", "summary" })
+    public TaskSummary summary() {
+        return counters.summary(LocalDate.now());
     }
 
     public PageResult<Task> search(TaskStatus status, String q, int page, int size) {
+        return search(TaskSearchCondition.builder().status(status).q(q).build(), page, size, TotalMode.EXACT);
+    }
+
+    /**
+     * filter の status/q/期限日/sort で検索する。
+     * EXACT 以外は COUNT の全件走査を省く。ESTIMATE はキャッシュ済みの件数、
+     * NONE は件数を返さず size+1 件取得で hasNext のみ判定する。
+     */
+    @Timed(value = TaskMetrics.OPERATION, extraTags = { "op", "search" })
+    public PageResult<Task> search(TaskSearchCondition filter, int page, int size, TotalMode totalMode) {
         if (page < 0) page = 0;
         if (size <= 0) size = 20;
         if (size > 100) size = 100;
+        if (totalMode == null) totalMode = TotalMode.EXACT;
         int offset = page * size;
-        List<Task> content = taskMapper.search(status, q, offset, size);
-        long total = taskMapper.count(status, q);
-        return new PageResult<>(content, page, size, total);
+        TaskSearchCondition cond = toCondition(filter).offset(offset).size(size).build();
+
+        if (totalMode == TotalMode.EXACT) {
+            List<Task> content = taskMapper.search(cond);
+            long total = metrics.count(() -> taskMapper.count(cond));
+            metrics.searchRows("offset", content.size(), offset + content.size());
+            return new PageResult<>(content, page, size, total, offset + content.size() < total, totalMode);
+        }
+
+        cond.setSize(size + 1);
+        List<Task> rows = taskMapper.search(cond);
+        boolean hasNext = rows.size() > size;
+        List<Task> content = hasNext ? rows.subList(0, size) : rows;
+        metrics.searchRows("offset", content.size(), offset + rows.size());
+        Long total = null;
+        if (totalMode == TotalMode.ESTIMATE) {
+            total = countCache.get(cond, () -> metrics.count(() -> taskMapper.count(cond)));
+        }
+        return new PageResult<>(content, page, size, total, hasNext, totalMode);
     }
-}
 
+    /**
+     * 同じ条件・ページのキー取得（keysOnly の search）の結果 keys に続けて本文の行を読む。
+     * 件数・hasNext は keys のものを使い、COUNT を繰り返さない（ETag が一致せず本文が必要になった場合）。
+     */
+    @Timed(value = TaskMetrics.OPERATION, extraTags = { "op", "search" })
+    public PageResult<Task> search(TaskSearchCondition filter, PageResult<Task> keys) {
+        int offset = keys.page() * keys.size();
+        TaskSearchCondition cond = toCondition(filter).keysOnly(false).offset(offset).size(keys.size()).build();
+        List<Task> content = taskMapper.search(cond);
+        metrics.searchRows("offset", content.size(), offset + content.size());
+        return new PageResult<>(content, keys.page(), keys.size(), keys.total(), keys.hasNext(), keys.totalMode());
+    }
+
+    /**
+     * キーセット（カーソル）ページング。OFFSETで読み飛ばさないため深いページでも速度が一定。
+     * size+1件取得して次ページの有無を判定し、あれば末尾行から nextCursor を作る。
+     * 並び順は常に created_at DESC, id DESC（sort は無視）。
+     */
+    @Timed(value = TaskMetrics.OPERATION, extraTags = { "op", "searchAfter" })
+    public CursorPageResult<Task> searchAfter(TaskSearchCondition filter, String cursor, int size) {
+        if (size <= 0) size = 20;
+        if (size > 100) size = 100;
+        TaskCursor after = (cursor == null || cursor.isEmpty()) ? null : TaskCursor.decode(cursor);
+        TaskSearchCondition cond = toCondition(filter).sort(null).size(size + 1).build();
+        if (after != null) {
+            cond.setAfterCreatedAt(after.createdAt());
+            cond.setAfterId(after.id());
+        }
+        List<Task> rows = taskMapper.search(cond);
+        metrics.searchRows("cursor", Math.min(rows.size(), size), rows.size());
+        if (rows.size() <= size) {
+            return new CursorPageResult<>(rows, size, null);
+        }
+        List<Task> content = rows.subList(0, size);
+        return new CursorPageResult<>(content, size, TaskCursor.of(content.get(size - 1)).encode());
+    }
+
+    /**
+     * filter の status/q/期限日に一致する全件を created_at DESC 順に sink へ渡す。
+     * MyBatis の Cursor で逐次読み出すため、件数に関わらずヒープ使用量は一定。
+     */
+    public long export(TaskSearchCondition filter, Consumer<Task> sink) {
+        long exported = 0;
+        try (Cursor<Task> cursor = taskMapper.export(toCondition(filter).sort(null).build())) {
+            for (Task t : cursor) {
+                sink.accept(t);
+                exported++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return exported;
+    }
+
+    /**
+     * since より後にコミットされた変更を seq 昇順で最大 limit 件返す。
+     * 変更ログはプライマリから読む（読み取り専用にしない）: レプリカはコミット順に反映するため、
+     * 遅れてコミットされた小さい seq が未反映のまま大きい seq を返すと、その変更を取りこぼす。
+     */
+    @Transactional
+    public List<TaskChange> changesAfter(long since, int limit) {
+        return changeLog.changesAfter(since, limit);
+    }
+
+    /**
+     * 差分同期。token なしは全件を id 順に返し（開始時点の変更ログ位置をトークンに持つ）、返し終えたら
+     * その位置からの差分に移る。差分は変更ログを size 件読み、対象 id の現在の行を主キーで引く（行がなければ削除）。
+     * 読む量は変更数に比例し、表の大きさには依存しない。同じ行が複数回返ることがあるため、クライアントは
+     * version の大きい方を採用すること。変更ログを読むため changesAfter と同じくプライマリから読む。
+     */
+    @Timed(value = TaskMetrics.OPERATION, extraTags = { "op", "sync" })
+    @Transactional
+    public TaskSyncResult<Task> sync(String token, int size) {
+        if (size <= 0) size = 100;
+        if (size > 1000) size = 1000;
+        TaskSyncToken from = (token == null || token.isEmpty())
+                ? new TaskSyncToken(changeLog.committedSeq(), 0L)
+                : TaskSyncToken.decode(token);
+
+        if (from.isSnapshot()) {
+            List<Task> rows = taskMapper.findAfterId(from.afterId(), size + 1);
+            if (rows.size() <= size) {
+                return new TaskSyncResult<>(rows, List.of(), new TaskSyncToken(from.seq(), null).encode(), false);
+            }
+            List<Task> content = rows.subList(0, size);
+            String next = new TaskSyncToken(from.seq(), content.get(size - 1).getId()).encode();
+            return new TaskSyncResult<>(content, List.of(), next, true);
+        }
+
+        List<TaskChange> changes = changeLog.changesAfter(from.seq(), size);
+        if (changes.isEmpty()) return new TaskSyncResult<>(List.of(), List.of(), from.encode(), false);
+
+        List<Long> ids = changes.stream().map(TaskChange::getTaskId).distinct().toList();
+        Map<Long, Task> current = taskMapper.findByIds(ids).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+        List<Task> changed = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        for (Long id : ids) {
+            Task t = current.get(id);
+            if (t != null) changed.add(t);
+            else deleted.add(id);
+        }
+        String next = new TaskSyncToken(changes.get(changes.size() - 1).getSeq(), null).encode();
+        return new TaskSyncResult<>(changed, deleted, next, changes.size() == size);
+    }
+
+    /** 現時点で確定している変更ログの位置（SSE を since 未指定で購読した場合の開始位置）。プライマリから読む */
+    @Transactional
+    public long latestChangeSeq() {
+        return changeLog.committedSeq();
+    }
+
+    /** 転置インデックス（task_terms）を全件再構築する */
+    @Transactional
+    public long rebuildSearchIndex() {
+        return textIndex.rebuild();
+    }
+
+    // 転置インデックス有効時は q を語に分解して terms 検索に置き換える。期限切れの基準日は今日
+    private TaskSearchCondition.TaskSearchConditionBuilder toCondition(TaskSearchCondition filter) {
+        TaskSearchCondition.TaskSearchConditionBuilder b = filter.toBuilder();
+        if (filter.isOverdue()) b.today(LocalDate.now());
+        String q = filter.getQ();
+        if (textIndex.isEnabled() && q != null && !q.isEmpty()) {
+            List<String> terms = TaskTextTokenizer.queryTerms(q);
+            // 記号のみ等で語が取れない場合は LIKE にフォールバック
+            if (!terms.isEmpty()) b.q(null).terms(terms);
+        }
+        return b;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.taskapp.service;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import com.example.taskapp.model.TaskStatus;
+
+/** ステータス別件数と期限切れ件数（asOf より前が期限で未完了） */
+public record TaskSummary(Map<TaskStatus, Long> byStatus, long total, long overdue, LocalDate asOf) {}
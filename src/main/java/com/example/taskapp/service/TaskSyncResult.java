@@ -0,0 +1,6 @@
+package com.example.taskapp.service;
+
+import java.util.List;
+
+/** 差分同期の結果。changed は現在の行、deleted は削除済みの id。次回は token を渡す */
+public record TaskSyncResult<T>(List<T> changed, List<Long> deleted, String token, boolean hasMore) {}
@@ -0,0 +1,40 @@
+package com.example.taskapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.example.taskapp.exception.BadRequestException;
+
+/**
+ * 差分同期（GET /api/tasks/sync）のトークン。seq は変更ログ上の同期済み位置。
+ * afterId があれば初回の全件取得（id 昇順）の途中で、全件を返し終えたら seq からの差分に移る。
+ * クライアントには不透明な文字列（Base64URL）として渡す。
+ */
+public record TaskSyncToken(long seq, Long afterId) {
+
+    private static final char SEPARATOR = ',';
+
+    public boolean isSnapshot() {
+        return afterId != null;
+    }
+
+    public String encode() {
+        String raw = isSnapshot() ? seq + String.valueOf(SEPARATOR) + afterId : String.valueOf(seq);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TaskSyncToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(SEPARATOR);
+            TaskSyncToken t = (sep < 0)
+                    ? new TaskSyncToken(Long.parseLong(raw), null)
+                    : new TaskSyncToken(Long.parseLong(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+            if (t.seq() < 0 || (t.isSnapshot() && t.afterId() < 0)) throw new IllegalArgumentException("negative");
+            return t;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("同期トークンが不正です: " + token);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.taskapp.service;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.taskapp.mapper.TaskMapper;
+import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskSearchCondition;
+
+/**
+ * キーワード検索（q）のバックエンド切替と転置インデックス（task_terms）の保守。
+ * taskapp.search.text-backend=like  : 従来の LIKE '%q%'（索引は保守しない）
+ * taskapp.search.text-backend=index : task_terms による語単位の一致。作成・更新時に索引を更新する
+ * like から index へ切り替える際は rebuild で既存データを索引付けすること。
+ */
+@Component
+public class TaskTextIndex {
+
+    static final int REBUILD_BATCH_SIZE = 500;
+
+    private final TaskMapper taskMapper;
+    private final boolean enabled;
+
+    public TaskTextIndex(TaskMapper taskMapper,
+            @Value("${taskapp.search.text-backend:like}") String backend) {
+        this.taskMapper = taskMapper;
+        this.enabled = switch (backend) {
+            case "like" -> false;
+            case "index" -> true;
+            default -> throw new IllegalArgumentException(
+                    "taskapp.search.text-backend must be 'like' or 'index': " + backend);
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** 新規作成されたタスクを索引に追加する */
+    public void add(Task task) {
+        add(taskMapper, task);
+    }
+
+    /** 更新されたタスクの索引を置き換える */
+    public void replace(Task task) {
+        replace(taskMapper, task);
+    }
+
+    /**
+     * 削除されたタスクの索引を消す。退避（tasks_archive）された行の索引は残すため外部キーの連鎖削除は使わない。
+     * like への切替後も残った語は消す（再び index にしたとき rebuild 前に削除済みの id が残らないように）
+     */
+    public void remove(Long taskId) {
+        remove(taskMapper, taskId);
+    }
+
+    /** 一括処理用: 呼び出し側のマッパー（BATCH エグゼキュータ）で索引を消す */
+    public void remove(TaskMapper mapper, Long taskId) {
+        mapper.deleteTerms(taskId);
+    }
+
+    /** 一括処理用: 呼び出し側のマッパー（BATCH エグゼキュータ）で索引を追加する */
+    public void add(TaskMapper mapper, Task task) {
+        if (!enabled) return;
+        insertTerms(mapper, task);
+    }
+
+    /** 一括処理用: 呼び出し側のマッパー（BATCH エグゼキュータ）で索引を置き換える */
+    public void replace(TaskMapper mapper, Task task) {
+        if (!enabled) return;
+        mapper.deleteTerms(task.getId());
+        insertTerms(mapper, task);
+    }
+
+    /** 全件を再索引する。呼び出し側でトランザクションを張ること */
+    public long rebuild() {
+        taskMapper.deleteAllTerms();
+        long indexed = 0;
+        TaskSearchCondition cond = TaskSearchCondition.builder().size(REBUILD_BATCH_SIZE).build();
+        while (true) {
+            List<Task> batch = taskMapper.search(cond);
+            for (Task t : batch) {
+                insertTerms(taskMapper, t);
+            }
+            indexed += batch.size();
+            if (batch.size() < REBUILD_BATCH_SIZE) break;
+            Task last = batch.get(batch.size() - 1);
+            cond.setAfterCreatedAt(last.getCreatedAt());
+            cond.setAfterId(last.getId());
+        }
+        return indexed;
+    }
+
+    private static void insertTerms(TaskMapper mapper, Task task) {
+        Map<String, Integer> tf = TaskTextTokenizer.termFrequencies(task.getTitle(), task.getDescription());
+        if (!tf.isEmpty()) {
+            mapper.insertTerms(task.getId(), tf);
+        }
+    }
+}
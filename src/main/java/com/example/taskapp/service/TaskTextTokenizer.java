@@ -0,0 +1,89 @@
+package com.example.taskapp.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 転置インデックス用の分かち書き。
+ * NFKC正規化＋小文字化し、英数字の連続は1語、漢字・かなの連続はバイグラム（1文字なら1文字）に分割する。
+ */
+public final class TaskTextTokenizer {
+
+    static final int MAX_TERM_LENGTH = 64;
+
+    private TaskTextTokenizer() {}
+
+    /** 検索語用: 重複を除いた語のリスト */
+    public static List<String> queryTerms(String q) {
+        return new ArrayList<>(new LinkedHashSet<>(tokenize(q)));
+    }
+
+    /** 索引用: 語ごとの出現回数 */
+    public static Map<String, Integer> termFrequencies(String... texts) {
+        Map<String, Integer> tf = new LinkedHashMap<>();
+        for (String text : texts) {
+            for (String term : tokenize(text)) {
+                tf.merge(term, 1, Integer::sum);
+            }
+        }
+        return tf;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) return terms;
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+
+        StringBuilder word = new StringBuilder();
+        StringBuilder cjk = new StringBuilder();
+        int i = 0;
+        while (i < normalized.length()) {
+            int cp = normalized.codePointAt(i);
+            i += Character.charCount(cp);
+            if (isCjk(cp)) {
+                flushWord(word, terms);
+                cjk.appendCodePoint(cp);
+            } else if (Character.isLetterOrDigit(cp)) {
+                flushCjk(cjk, terms);
+                word.appendCodePoint(cp);
+            } else {
+                flushWord(word, terms);
+                flushCjk(cjk, terms);
+            }
+        }
+        flushWord(word, terms);
+        flushCjk(cjk, terms);
+        return terms;
+    }
+
+    private static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA;
+    }
+
+    private static void flushWord(StringBuilder word, List<String> terms) {
+        if (word.length() == 0) return;
+        terms.add(word.length() > MAX_TERM_LENGTH ? word.substring(0, MAX_TERM_LENGTH) : word.toString());
+        word.setLength(0);
+    }
+
+    private static void flushCjk(StringBuilder cjk, List<String> terms) {
+        if (cjk.length() == 0) return;
+        int[] cps = cjk.codePoints().toArray();
+        if (cps.length == 1) {
+            terms.add(new String(cps, 0, 1));
+        } else {
+            for (int k = 0; k + 1 < cps.length; k++) {
+                terms.add(new String(cps, k, 2));
+            }
+        }
+        cjk.setLength(0);
+    }
+}
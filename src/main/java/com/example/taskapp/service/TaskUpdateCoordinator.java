@@ -0,0 +1,141 @@
+package com.example.taskapp.service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.taskapp.exception.OptimisticLockException;
+import com.example.taskapp.mapper.TaskMapper;
+import com.example.taskapp.model.Task;
+
+/**
+ * 同一タスクへの更新集中（競合の嵐）を抑える、任意有効の競合制御（taskapp.contention.mode=striped）。
+ * <ul>
+ * <li>id ごとのストライプロックで同一プロセス内の更新を直列化する。ロックはトランザクションの外側で取り、
+ * コミット後に解放するため、待っていた更新は必ずコミット済みの version を見る。</li>
+ * <li>version 競合時、If-Match の version の内容（TaskVersionHistory）を基底として、クライアントの変更項目と
+ * 並行して確定した変更項目が重ならなければ最新行にクライアントの変更を適用して再試行する（max-retries 回まで）。
+ * 重なる場合や基底が不明な場合は従来どおり 409。</li>
+ * </ul>
+ * 楽観ロックの判定は常に DB の version 条件で行うため、ロック待ちがタイムアウトした場合や
+ * 他インスタンスからの更新があっても正しさは変わらない。mode=none（既定）では TaskService.update をそのまま呼ぶ。
+ */
+@Service
+public class TaskUpdateCoordinator {
+
+    public enum Mode {
+        NONE, STRIPED;
+
+        static Mode from(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("taskapp.contention.mode must be none or striped: " + value);
+            }
+        }
+    }
+
+    private final TaskService taskService;
+    private final TaskMapper taskMapper;
+    private final TaskVersionHistory history;
+    private final TaskMetrics metrics;
+    private final Mode mode;
+    private final ReentrantLock[] stripes;
+    private final int maxRetries;
+    private final long lockTimeoutMillis;
+
+    public TaskUpdateCoordinator(TaskService taskService, TaskMapper taskMapper, TaskVersionHistory history,
+            TaskMetrics metrics,
+            @Value("${taskapp.contention.mode:none}") String mode,
+            @Value("${taskapp.contention.stripes:256}") int stripes,
+            @Value("${taskapp.contention.max-retries:3}") int maxRetries,
+            @Value("${taskapp.contention.lock-timeout:2s}") Duration lockTimeout) {
+        this.taskService = taskService;
+        this.taskMapper = taskMapper;
+        this.history = history;
+        this.metrics = metrics;
+        this.mode = Mode.from(mode);
+        this.stripes = new ReentrantLock[Math.max(1, stripes)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.maxRetries = maxRetries;
+        this.lockTimeoutMillis = lockTimeout.toMillis();
+    }
+
+    public Task update(Long id, long ifMatchVersion, Task task) {
+        if (mode == Mode.NONE) return taskService.update(id, ifMatchVersion, task);
+
+        ReentrantLock lock = stripes[Math.floorMod(Long.hashCode(id) * 0x9E3779B9, stripes.length)];
+        boolean locked = tryLock(lock);
+        try {
+            return updateWithMerge(id, ifMatchVersion, task);
+        } finally {
+            if (locked) lock.unlock();
+        }
+    }
+
+    private Task updateWithMerge(Long id, long ifMatchVersion, Task task) {
+        Task base = history.find(id, ifMatchVersion);
+        long expected = ifMatchVersion;
+        Task desired = task;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return taskService.update(id, expected, desired);
+            } catch (OptimisticLockException e) {
+                if (base == null || attempt >= maxRetries) throw e;
+                Task current = taskMapper.findById(id);
+                if (current == null) throw e;
+                Task merged = merge(base, task, current);
+                if (merged == null) throw e;
+                metrics.merged();
+                expected = current.getVersion();
+                desired = merged;
+            }
+        }
+    }
+
+    /**
+     * base からの client の変更を current に適用する。両者が同じ項目を異なる値に変えていれば null。
+     */
+    static Task merge(Task base, Task client, Task current) {
+        Task merged = new Task(current.getId(), current.getTitle(), current.getDescription(), current.getStatus(),
+                current.getDueDate(), current.getVersion(), current.getCreatedAt(), current.getUpdatedAt());
+        if (!Objects.equals(client.getTitle(), base.getTitle())) {
+            if (conflicts(base.getTitle(), client.getTitle(), current.getTitle())) return null;
+            merged.setTitle(client.getTitle());
+        }
+        if (!Objects.equals(client.getDescription(), base.getDescription())) {
+            if (conflicts(base.getDescription(), client.getDescription(), current.getDescription())) return null;
+            merged.setDescription(client.getDescription());
+        }
+        if (!Objects.equals(client.getStatus(), base.getStatus())) {
+            if (conflicts(base.getStatus(), client.getStatus(), current.getStatus())) return null;
+            merged.setStatus(client.getStatus());
+        }
+        if (!Objects.equals(client.getDueDate(), base.getDueDate())) {
+            if (conflicts(base.getDueDate(), client.getDueDate(), current.getDueDate())) return null;
+            merged.setDueDate(client.getDueDate());
+        }
+        return merged;
+    }
+
+    // 並行側も同じ項目を変えていて、かつ値が異なる
+    private static boolean conflicts(Object base, Object client, Object current) {
+        return !Objects.equals(current, base) && !Objects.equals(current, client);
+    }
+
+    private boolean tryLock(ReentrantLock lock) {
+        try {
+            return lock.tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
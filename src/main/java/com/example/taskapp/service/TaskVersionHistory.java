@@ -0,0 +1,49 @@
+package com.example.taskapp.service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.taskapp.model.Task;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * 直近にコミットされた行を (id, version) で保持する。競合時のマージで、クライアントが If-Match に
+ * 指定した version の内容（マージの基底）を引くために使う。競合制御モードが有効なときだけ記録する。
+ * ロールバックされた version が別内容で再利用されないよう、記録はコミット後に行う。
+ */
+@Component
+public class TaskVersionHistory {
+
+    private final boolean enabled;
+    private final Cache<Key, Task> rows;
+
+    public TaskVersionHistory(
+            @Value("${taskapp.contention.mode:none}") String mode,
+            @Value("${taskapp.contention.merge:true}") boolean merge,
+            @Value("${taskapp.contention.history-size:10000}") long maxSize,
+            @Value("${taskapp.contention.history-ttl:5m}") Duration ttl) {
+        this.enabled = TaskUpdateCoordinator.Mode.from(mode) != TaskUpdateCoordinator.Mode.NONE && merge;
+        this.rows = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(Task task) {
+        if (!enabled || task == null || task.getId() == null || task.getVersion() == null) return;
+        Task copy = new Task(task.getId(), task.getTitle(), task.getDescription(), task.getStatus(),
+                task.getDueDate(), task.getVersion(), task.getCreatedAt(), task.getUpdatedAt());
+        TransactionHooks.afterCommit(() -> rows.put(new Key(copy.getId(), copy.getVersion()), copy));
+    }
+
+    /** 記録がなければ null */
+    public Task find(Long id, long version) {
+        return enabled ? rows.getIfPresent(new Key(id, version)) : null;
+    }
+
+    private record Key(long id, long version) {}
+}
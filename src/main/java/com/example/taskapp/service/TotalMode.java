@@ -0,0 +1,28 @@
+package com.example.taskapp.service;
+
+import java.util.Locale;
+
+import com.example.taskapp.exception.BadRequestException;
+
+/**
+ * 検索結果の総件数の求め方。
+ * EXACT: COUNTを毎回実行 / ESTIMATE: 短TTLでキャッシュしたCOUNT / NONE: 件数を返さず hasNext のみ
+ */
+public enum TotalMode {
+    EXACT,
+    ESTIMATE,
+    NONE;
+
+    public String value() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static TotalMode from(String value) {
+        if (value == null || value.isEmpty()) return EXACT;
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("totalの指定が不正です: " + value);
+        }
+    }
+}
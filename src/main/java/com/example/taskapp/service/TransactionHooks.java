@@ -0,0 +1,27 @@
+package com.example.taskapp.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * トランザクションのコミット後に行う処理の登録（プロセス内キャッシュへの反映用）。
+ */
+final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    /** トランザクション中ならコミット後に（ロールバック時は実行しない）、トランザクション外なら即時に実行する */
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+-- Flyway Migration: V2__tasks_keyset_index.sql
+-- Composite index for keyset pagination: ORDER BY created_at DESC, id DESC
+
+CREATE INDEX IF NOT EXISTS idx_tasks_created_at_id ON tasks(created_at DESC, id DESC);
+
+-- Superseded by the composite index above (same leading column)
+DROP INDEX IF EXISTS idx_tasks_created_at;
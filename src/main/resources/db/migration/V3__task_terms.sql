@@ -0,0 +1,13 @@
+-- Flyway Migration: V3__task_terms.sql
+-- Inverted index for keyword search (q) on title/description.
+-- Populated by the application on create/update; backfill with POST /api/tasks/search-index/rebuild
+
+CREATE TABLE IF NOT EXISTS task_terms (
+    term        VARCHAR(64)       NOT NULL,
+    task_id     BIGINT            NOT NULL,
+    tf          INT               NOT NULL,
+    PRIMARY KEY (term, task_id),
+    CONSTRAINT fk_task_terms_task FOREIGN KEY (task_id) REFERENCES tasks(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_task_terms_task_id ON task_terms(task_id);
@@ -0,0 +1,13 @@
+-- Flyway Migration: V4__task_changes.sql
+-- Append-only change log for incremental sync (GET /api/tasks/changes, /api/tasks/changes/stream).
+-- Written in the same transaction as the task insert/update/delete. seq is allocated in insert order,
+-- not commit order; readers only see seq up to the application's committed high-water mark.
+
+CREATE TABLE IF NOT EXISTS task_changes (
+    seq         BIGINT            GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    task_id     BIGINT            NOT NULL,
+    op          VARCHAR(16)       NOT NULL,
+    version     BIGINT,
+    changed_at  TIMESTAMP         NOT NULL,
+    CONSTRAINT chk_task_changes_op CHECK (op IN ('CREATED','UPDATED','DELETED'))
+);
@@ -0,0 +1,28 @@
+-- Flyway Migration: V6__tasks_archive.sql
+-- Hot/archive split of tasks (H2 has no declarative partitioning).
+-- DONE tasks not updated for taskapp.archive.after are moved here in small batches by TaskArchiver;
+-- a write to an archived task moves it back first. Searches filtered to OPEN/DOING read tasks only.
+-- ids keep their original values (allocated by the tasks identity), so the two tables never overlap.
+
+CREATE TABLE IF NOT EXISTS tasks_archive (
+    id          BIGINT            PRIMARY KEY,
+    title       VARCHAR(200)      NOT NULL,
+    description VARCHAR(4000),
+    status      VARCHAR(16)       NOT NULL,
+    due_date    DATE,
+    version     BIGINT            NOT NULL,
+    created_at  TIMESTAMP         NOT NULL,
+    updated_at  TIMESTAMP         NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_tasks_archive_created_at_id ON tasks_archive(created_at DESC, id DESC);
+
+-- Archiver candidate scan: status = 'DONE' AND updated_at < ?
+CREATE INDEX IF NOT EXISTS idx_tasks_status_updated_at ON tasks(status, updated_at);
+
+-- Superseded by the composite index above (same leading column)
+DROP INDEX IF EXISTS idx_tasks_status;
+
+-- Terms of archived tasks stay in task_terms, so the cascade from tasks can no longer be used;
+-- the application deletes terms together with the task.
+ALTER TABLE task_terms DROP CONSTRAINT IF EXISTS fk_task_terms_task;
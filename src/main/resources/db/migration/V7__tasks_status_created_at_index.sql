@@ -0,0 +1,10 @@
+-- Flyway Migration: V7__tasks_status_created_at_index.sql
+-- Composite indexes for the status-filtered list: WHERE status = ? ORDER BY created_at DESC, id DESC
+-- (OFFSET/FETCH and keyset pages, count, export). One index serves both the filter and the sort,
+-- so a page reads only size rows instead of sorting every row of that status.
+-- Plans for every TaskMapper statement are pinned by TaskMapperPlanTest.
+
+CREATE INDEX IF NOT EXISTS idx_tasks_status_created_at_id ON tasks(status, created_at DESC, id DESC);
+
+-- tasks_archive holds DONE only, but status = 'DONE' searches and counts still filter on it
+CREATE INDEX IF NOT EXISTS idx_tasks_archive_status_created_at_id ON tasks_archive(status, created_at DESC, id DESC);
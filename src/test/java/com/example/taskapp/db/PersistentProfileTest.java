@@ -0,0 +1,48 @@
+package com.example.taskapp.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.taskapp.TaskAppApplication;
+import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskStatus;
+import com.example.taskapp.service.TaskService;
+
+@DisplayName("永続化プロファイル（h2file）")
+class PersistentProfileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("h2fileプロファイルではアプリを再起動しても登録済みのタスクが残る")
+    void tasks_survive_restart_with_h2file_profile() {
+        Long id;
+        try (ConfigurableApplicationContext ctx = start()) {
+            id = ctx.getBean(TaskService.class)
+                    .create(Task.builder().title("persisted").status(TaskStatus.OPEN).build()).getId();
+            assertThat(ctx.getBean(SqlSessionFactory.class).getConfiguration().getDefaultStatementTimeout()).isEqualTo(10);
+        }
+        assertThat(dir.resolve("taskdb.mv.db")).exists();
+
+        try (ConfigurableApplicationContext ctx = start()) {
+            assertThat(ctx.getBean(TaskService.class).get(id).getTitle()).isEqualTo("persisted");
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(TaskAppApplication.class)
+                .profiles("h2file")
+                .web(WebApplicationType.NONE)
+                .run("--taskapp.db.dir=" + dir.toAbsolutePath());
+    }
+}
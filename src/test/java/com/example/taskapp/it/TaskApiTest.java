@@ -2,11 +2,25 @@ package com.example.taskapp.it;
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.core.ParameterizedTypeReference;
@@ -18,13 +32,27 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.SqlConfig;
 
+import com.example.taskapp.dto.CursorPageResponse;
 import com.example.taskapp.dto.PageResponse;
+import com.example.taskapp.dto.ReindexResp;
+import com.example.taskapp.dto.TaskChangeResp;
+import com.example.taskapp.dto.TaskChangesResp;
 import com.example.taskapp.dto.TaskCreateReq;
 import com.example.taskapp.dto.TaskResp;
+import com.example.taskapp.dto.TaskSummaryResp;
+import com.example.taskapp.dto.TaskSyncBody;
 import com.example.taskapp.dto.TaskUpdateReq;
+import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskChange;
 import com.example.taskapp.model.TaskStatus;
+import com.example.taskapp.service.TaskCounters;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "taskapp.compression.page-cache.enabled=true")
+@AutoConfigureObservability
 @DisplayName("Task API 統合テスト（TestRestTemplate＋H2実DB）")
 @Sql(scripts = "/testdata/clean.sql", config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
 class TaskApiTest {
@@ -32,6 +60,15 @@ class TaskApiTest {
     @Autowired
     TestRestTemplate rest;
 
+    @Autowired
+    TaskCounters counters;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
     private TaskResp createTask(String title, String desc, TaskStatus status, LocalDate due) {
         TaskCreateReq req = new TaskCreateReq();
         req.setTitle(title);
@@ -155,7 +192,7 @@ class TaskApiTest {
 
     @Test
     @DisplayName("正常系: GET /api/tasks の検索・ページング（status+q、created_at DESC）")
-    @Sql(scripts = "/testdata/task_seed.sql", config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = { "/testdata/clean.sql", "/testdata/task_seed.sql" }, config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
     void search_with_filters_and_paging() {
         ParameterizedTypeReference<PageResponse<TaskResp>> type = new ParameterizedTypeReference<>() {};
 
@@ -180,5 +217,545 @@ class TaskApiTest {
         assertThat(p2.getBody().content()).hasSize(1);
         assertThat(p2.getBody().content().get(0).getTitle()).isEqualTo("Alpha task");
     }
-}
 
+    @Test
+    @DisplayName("正常系: GET /api/tasks の期限日絞り込み（overdue・dueFrom/dueTo）と sort=dueDate、範囲の逆転は400")
+    @Sql(scripts = { "/testdata/clean.sql", "/testdata/task_seed.sql" }, config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void search_by_due_date() {
+        ParameterizedTypeReference<PageResponse<TaskResp>> type = new ParameterizedTypeReference<>() {};
+
+        // シードの期限は 2024-01-05〜08 で全て過去日。期限切れは未完了のみ（DONE の 'Foo bar' を除く）
+        ResponseEntity<PageResponse<TaskResp>> overdue = rest.exchange(
+                "/api/tasks?overdue=true&sort=dueDate", HttpMethod.GET, null, type);
+        assertThat(overdue.getStatusCode().value()).isEqualTo(200);
+        assertThat(overdue.getBody().content()).extracting(TaskResp::getTitle)
+                .containsExactly("Alpha task", "Bravo task", "Another foo");
+        assertThat(overdue.getBody().total()).isEqualTo(3);
+
+        ResponseEntity<PageResponse<TaskResp>> range = rest.exchange(
+                "/api/tasks?dueFrom=2024-01-06&dueTo=2024-01-07&sort=dueDate", HttpMethod.GET, null, type);
+        assertThat(range.getBody().content()).extracting(TaskResp::getTitle).containsExactly("Bravo task", "Foo bar");
+
+        ResponseEntity<String> reversed = rest.getForEntity("/api/tasks?dueFrom=2024-01-07&dueTo=2024-01-06", String.class);
+        assertThat(reversed.getStatusCode().value()).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("正常系: GET /api/tasks?total=none で total=null・hasNextのみ返す")
+    @Sql(scripts = { "/testdata/clean.sql", "/testdata/task_seed.sql" }, config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void search_with_total_none() {
+        ParameterizedTypeReference<PageResponse<TaskResp>> type = new ParameterizedTypeReference<>() {};
+
+        ResponseEntity<PageResponse<TaskResp>> p1 = rest.exchange(
+                "/api/tasks?status=OPEN&q=foo&page=0&size=1&total=none",
+                HttpMethod.GET,
+                null,
+                type);
+        assertThat(p1.getStatusCode().value()).isEqualTo(200);
+        assertThat(p1.getBody()).isNotNull();
+        assertThat(p1.getBody().total()).isNull();
+        assertThat(p1.getBody().hasNext()).isTrue();
+        assertThat(p1.getBody().totalMode()).isEqualTo("none");
+
+        ResponseEntity<PageResponse<TaskResp>> p2 = rest.exchange(
+                "/api/tasks?status=OPEN&q=foo&page=1&size=1&total=none",
+                HttpMethod.GET,
+                null,
+                type);
+        assertThat(p2.getBody()).isNotNull();
+        assertThat(p2.getBody().hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("正常系: GET /api/tasks?cursor= でキーセットページング（nextCursorで続きを取得）")
+    @Sql(scripts = { "/testdata/clean.sql", "/testdata/task_seed.sql" }, config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void search_with_cursor_paging() {
+        ParameterizedTypeReference<CursorPageResponse<TaskResp>> type = new ParameterizedTypeReference<>() {};
+
+        ResponseEntity<CursorPageResponse<TaskResp>> p1 = rest.exchange(
+                "/api/tasks?status=OPEN&q=foo&cursor=&size=1",
+                HttpMethod.GET,
+                null,
+                type);
+        assertThat(p1.getStatusCode().value()).isEqualTo(200);
+        assertThat(p1.getBody()).isNotNull();
+        assertThat(p1.getBody().content()).extracting(TaskResp::getTitle).containsExactly("Another foo");
+        assertThat(p1.getBody().nextCursor()).isNotNull();
+
+        ResponseEntity<CursorPageResponse<TaskResp>> p2 = rest.exchange(
+                "/api/tasks?status=OPEN&q=foo&size=1&cursor=" + p1.getBody().nextCursor(),
+                HttpMethod.GET,
+                null,
+                type);
+        assertThat(p2.getStatusCode().value()).isEqualTo(200);
+        assertThat(p2.getBody()).isNotNull();
+        assertThat(p2.getBody().content()).extracting(TaskResp::getTitle).containsExactly("Alpha task");
+        assertThat(p2.getBody().nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("異常系: GET /api/tasks?cursor=不正値 は400")
+    void search_with_invalid_cursor_returns_400() {
+        ResponseEntity<String> res = rest.getForEntity("/api/tasks?cursor=%%%", String.class);
+        assertThat(res.getStatusCode().value()).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("正常系: POST /api/tasks/search-index/rebuild で全件を再索引し件数を返す")
+    @Sql(scripts = { "/testdata/clean.sql", "/testdata/task_seed.sql" }, config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void rebuild_search_index_returns_indexed_count() {
+        ResponseEntity<ReindexResp> res = rest.postForEntity("/api/tasks/search-index/rebuild", null, ReindexResp.class);
+        assertThat(res.getStatusCode().value()).isEqualTo(200);
+        assertThat(res.getBody()).isNotNull();
+        assertThat(res.getBody().indexed()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("正常系: GET /api/tasks/{id} はETagを返し、If-None-Match一致で304・本文なし")
+    void get_with_if_none_match_returns_304() {
+        TaskResp created = createTask("Conditional", "", TaskStatus.OPEN, LocalDate.now());
+
+        ResponseEntity<TaskResp> first = rest.getForEntity("/api/tasks/" + created.getId(), TaskResp.class);
+        assertThat(first.getHeaders().getFirst(HttpHeaders.ETAG)).isEqualTo("\"0\"");
+
+        HttpHeaders h = new HttpHeaders();
+        h.add(HttpHeaders.IF_NONE_MATCH, "0");
+        ResponseEntity<String> notModified = rest.exchange("/api/tasks/" + created.getId(), HttpMethod.GET, new HttpEntity<>(h), String.class);
+        assertThat(notModified.getStatusCode().value()).isEqualTo(304);
+        assertThat(notModified.getBody()).isNull();
+        assertThat(notModified.getHeaders().getFirst(HttpHeaders.ETAG)).isEqualTo("\"0\"");
+
+        HttpHeaders stale = new HttpHeaders();
+        stale.add(HttpHeaders.IF_NONE_MATCH, "\"99\"");
+        ResponseEntity<TaskResp> modified = rest.exchange("/api/tasks/" + created.getId(), HttpMethod.GET, new HttpEntity<>(stale), TaskResp.class);
+        assertThat(modified.getStatusCode().value()).isEqualTo(200);
+        assertThat(modified.getBody()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("正常系: GETのETag（引用付き）をそのままIf-Matchに使ってPUTできる")
+    void put_accepts_quoted_etag_from_get() {
+        TaskResp created = createTask("Round trip", "", TaskStatus.OPEN, LocalDate.now());
+        String etag = rest.getForEntity("/api/tasks/" + created.getId(), TaskResp.class)
+                .getHeaders().getFirst(HttpHeaders.ETAG);
+
+        TaskUpdateReq body = new TaskUpdateReq();
+        body.setTitle("Round trip 2");
+        body.setStatus(TaskStatus.DOING);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.add("If-Match", etag);
+
+        ResponseEntity<TaskResp> res = rest.exchange("/api/tasks/" + created.getId(), HttpMethod.PUT, new HttpEntity<>(body, headers), TaskResp.class);
+        assertThat(res.getStatusCode().value()).isEqualTo(200);
+        assertThat(res.getHeaders().getFirst(HttpHeaders.ETAG)).isEqualTo("1");
+    }
+
+    @Test
+    @DisplayName("正常系: GET /api/tasks は弱いETagを返し、結果が変わるまで304、更新後は200")
+    @Sql(scripts = { "/testdata/clean.sql", "/testdata/task_seed.sql" }, config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void search_with_if_none_match_returns_304_until_changed() {
+        ResponseEntity<String> first = rest.getForEntity("/api/tasks?status=OPEN", String.class);
+        String etag = first.getHeaders().getFirst(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("W/\"");
+
+        HttpHeaders h = new HttpHeaders();
+        h.add(HttpHeaders.IF_NONE_MATCH, etag);
+        ResponseEntity<String> notModified = rest.exchange("/api/tasks?status=OPEN", HttpMethod.GET, new HttpEntity<>(h), String.class);
+        assertThat(notModified.getStatusCode().value()).isEqualTo(304);
+
+        createTask("New open", "", TaskStatus.OPEN, LocalDate.now());
+        ResponseEntity<String> changed = rest.exchange("/api/tasks?status=OPEN", HttpMethod.GET, new HttpEntity<>(h), String.class);
+        assertThat(changed.getStatusCode().value()).isEqualTo(200);
+        assertThat(changed.getHeaders().getFirst(HttpHeaders.ETAG)).isNotEqualTo(etag);
+    }
+
+    @Test
+    @DisplayName("正常系: GET /api/tasks の ETag 不一致時は、キー取得の件数を本文にも使い COUNT を1回だけ実行する")
+    @Sql(scripts = { "/testdata/clean.sql", "/testdata/task_seed.sql" }, config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void search_with_stale_if_none_match_counts_once() {
+        HttpHeaders h = new HttpHeaders();
+        h.add(HttpHeaders.IF_NONE_MATCH, "W/\"stale\"");
+        long before = countExecutions();
+        ResponseEntity<PageResponse<TaskResp>> res = rest.exchange("/api/tasks?status=OPEN", HttpMethod.GET,
+                new HttpEntity<>(h), new ParameterizedTypeReference<PageResponse<TaskResp>>() {});
+        assertThat(res.getStatusCode().value()).isEqualTo(200);
+        assertThat(res.getBody().total()).isEqualTo(2);
+        assertThat(res.getBody().content()).extracting(TaskResp::getTitle).containsExactly("Another foo", "Alpha task");
+        assertThat(countExecutions() - before).isEqualTo(1);
+    }
+
+    private long countExecutions() {
+        var timer = meterRegistry.find("taskapp.task.operation").tag("op", "count").timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    @Test
+    @DisplayName("正常系: GET /api/tasks?status=DONE の条件付きGET（tasks と tasks_archive を合わせて並べ直す）は304を返す")
+    @Sql(scripts = { "/testdata/clean.sql", "/testdata/task_seed.sql" }, config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void search_done_with_if_none_match_returns_304() {
+        assertThat(conditionalGet("/api/tasks?status=DONE")).isEqualTo(304);
+        assertThat(conditionalGet("/api/tasks?status=DONE&cursor=")).isEqualTo(304);
+    }
+
+    @Test
+    @DisplayName("正常系: GET /api/tasks?sort=dueDate / sort=updatedAt の条件付きGETは304を返す（並び順の列もキー取得で読む）")
+    @Sql(scripts = { "/testdata/clean.sql", "/testdata/task_seed.sql" }, config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void search_sorted_with_if_none_match_returns_304() {
+        assertThat(conditionalGet("/api/tasks?sort=dueDate")).isEqualTo(304);
+        assertThat(conditionalGet("/api/tasks?sort=updatedAt")).isEqualTo(304);
+        assertThat(conditionalGet("/api/tasks?status=DONE&sort=dueDate&fields=title")).isEqualTo(304);
+    }
+
+    // 1回目の ETag を If-None-Match に付けて再取得したときのステータス
+    private int conditionalGet(String url) {
+        ResponseEntity<String> first = rest.getForEntity(url, String.class);
+        assertThat(first.getStatusCode().value()).isEqualTo(200);
+        HttpHeaders h = new HttpHeaders();
+        h.add(HttpHeaders.IF_NONE_MATCH, first.getHeaders().getFirst(HttpHeaders.ETAG));
+        return rest.exchange(url, HttpMethod.GET, new HttpEntity<>(h), String.class).getStatusCode().value();
+    }
+
+    @Test
+    @DisplayName("正常系: GET /api/tasks/export はstatus/qで絞り込んだ全件をNDJSONで返す")
+    @Sql(scripts = { "/testdata/clean.sql", "/testdata/task_seed.sql" }, config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void export_ndjson_honours_filters() {
+        ResponseEntity<String> res = rest.getForEntity("/api/tasks/export?status=OPEN&q=foo", String.class);
+        assertThat(res.getStatusCode().value()).isEqualTo(200);
+        assertThat(res.getHeaders().getContentType().toString()).startsWith("application/x-ndjson");
+        assertThat(res.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION)).contains("tasks.ndjson");
+
+        String[] lines = res.getBody().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"title\":\"Another foo\"").contains("\"createdAt\":\"2024-");
+        assertThat(lines[1]).contains("\"title\":\"Alpha task\"");
+    }
+
+    @Test
+    @DisplayName("正常系: GET /api/tasks/export?format=csv はヘッダ行付きCSV（カンマ・引用符はエスケープ）")
+    void export_csv_escapes_fields() {
+        createTask("Plain", "no special", TaskStatus.DONE, LocalDate.now());
+        createTask("Comma, \"quoted\"", "line1\nline2", TaskStatus.OPEN, LocalDate.now());
+
+        ResponseEntity<String> res = rest.getForEntity("/api/tasks/export?format=csv", String.class);
+        assertThat(res.getStatusCode().value()).isEqualTo(200);
+        assertThat(res.getHeaders().getContentType().toString()).startsWith("text/csv");
+
+        String body = res.getBody();
+        assertThat(body).startsWith("id,title,description,status,dueDate,version,createdAt,updatedAt\r\n");
+        assertThat(body).contains(",\"Comma, \"\"quoted\"\"\",\"line1\nline2\",OPEN,");
+        assertThat(body).contains(",Plain,no special,DONE,");
+    }
+
+    @Test
+    @DisplayName("異常系: GET /api/tasks/export?format=xml は400")
+    void export_unknown_format_returns_400() {
+        ResponseEntity<String> res = rest.getForEntity("/api/tasks/export?format=xml", String.class);
+        assertThat(res.getStatusCode().value()).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("正常系: /actuator/prometheus に操作別・ステートメント別のヒストグラムとプール待ち時間が出る")
+    void prometheus_exposes_operation_and_statement_timings() {
+        TaskResp created = createTask("Metrics", null, TaskStatus.OPEN, null);
+        rest.getForEntity("/api/tasks/" + created.getId(), TaskResp.class);
+        rest.getForEntity("/api/tasks?size=5", String.class);
+
+        ResponseEntity<String> res = rest.getForEntity("/actuator/prometheus", String.class);
+        assertThat(res.getStatusCode().value()).isEqualTo(200);
+        assertThat(res.getBody())
+                .contains("taskapp_task_operation_seconds_bucket{")
+                .contains("op=\"create\"").contains("op=\"search\"").contains("op=\"count\"")
+                .contains("taskapp_mapper_statement_seconds_count{command=\"INSERT\",statement=\"TaskMapper.insert\"}")
+                .contains("taskapp_search_rows_returned_count")
+                .contains("hikaricp_connections_acquire_seconds_bucket");
+    }
+
+    @Test
+    @DisplayName("正常系: GET /api/tasks?fields=id,title,status は指定項目のみ返し、不明な項目名は400")
+    @Sql(scripts = { "/testdata/clean.sql", "/testdata/task_seed.sql" }, config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void search_with_fields_returns_only_selected_fields() {
+        ResponseEntity<String> res = rest.getForEntity("/api/tasks?size=2&fields=id,title,status", String.class);
+        assertThat(res.getStatusCode().value()).isEqualTo(200);
+        assertThat(res.getBody())
+                .startsWith("{\"content\":[{\"id\":")
+                .contains("\"title\":").contains("\"status\":")
+                .doesNotContain("description").doesNotContain("createdAt").doesNotContain("version\"")
+                .contains("\"page\":0,\"size\":2,");
+
+        ResponseEntity<String> cursor = rest.getForEntity("/api/tasks?cursor=&size=1&fields=title", String.class);
+        assertThat(cursor.getBody()).matches("\\{\"content\":\\[\\{\"title\":\"[^\"]+\"\\}\\],\"size\":1,\"nextCursor\":\"[^\"]+\"\\}");
+
+        ResponseEntity<String> bad = rest.getForEntity("/api/tasks?fields=id,secret", String.class);
+        assertThat(bad.getStatusCode().value()).isEqualTo(400);
+        assertThat(bad.getBody()).contains("secret");
+    }
+
+    @Test
+    @DisplayName("正常系: GET /api/tasks/{id}?fields=title,dueDate は指定項目のみ返す（ETagは version）")
+    void get_with_fields_returns_partial_task() {
+        TaskResp created = createTask("Partial", "long description", TaskStatus.OPEN, LocalDate.now());
+
+        ResponseEntity<String> res = rest.getForEntity("/api/tasks/" + created.getId() + "?fields=title,dueDate", String.class);
+        assertThat(res.getStatusCode().value()).isEqualTo(200);
+        assertThat(res.getHeaders().getETag()).isEqualTo("\"0\"");
+        assertThat(res.getBody()).isEqualTo("{\"title\":\"Partial\",\"dueDate\":\"" + LocalDate.now() + "\"}");
+
+        ResponseEntity<TaskResp> full = rest.getForEntity("/api/tasks/" + created.getId(), TaskResp.class);
+        assertThat(full.getBody().getDescription()).isEqualTo("long description");
+    }
+
+    @Test
+    @DisplayName("正常系: PATCH /api/tasks/{id}（Merge Patch）は指定項目のみ更新し、変更なしならversionを上げない")
+    void patch_updates_only_given_fields() {
+        TaskResp created = createTask("Patch", "keep me", TaskStatus.OPEN, null);
+        String url = "/api/tasks/" + created.getId();
+
+        ResponseEntity<TaskResp> doing = patch(url, "0", "{\"status\":\"DOING\"}");
+        assertThat(doing.getStatusCode().value()).isEqualTo(200);
+        assertThat(doing.getHeaders().getETag()).isEqualTo("1");
+        assertThat(doing.getBody().getStatus()).isEqualTo(TaskStatus.DOING);
+        assertThat(doing.getBody().getDescription()).isEqualTo("keep me");
+        assertThat(doing.getBody().getTitle()).isEqualTo("Patch");
+
+        ResponseEntity<TaskResp> same = patch(url, "1", "{\"status\":\"DOING\",\"title\":\"Patch\"}");
+        assertThat(same.getBody().getVersion()).isEqualTo(1L);
+
+        ResponseEntity<TaskResp> cleared = patch(url, "1", "{\"description\":null}");
+        assertThat(cleared.getBody().getVersion()).isEqualTo(2L);
+        assertThat(cleared.getBody().getDescription()).isNull();
+
+        assertThat(patch(url, "1", "{\"status\":\"DONE\"}").getStatusCode().value()).isEqualTo(409);
+        assertThat(patch(url, "2", "{\"title\":null}").getStatusCode().value()).isEqualTo(400);
+        assertThat(patch(url, "2", "{\"version\":5}").getStatusCode().value()).isEqualTo(400);
+        assertThat(patch(url, "2", "{\"status\":\"NOPE\"}").getStatusCode().value()).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("正常系: GET /api/tasks/changes は作成・更新・削除をseq順に返し、nextで続きから取得できる")
+    void changes_returns_writes_in_commit_order() {
+        TaskResp created = createTask("Changes", "", TaskStatus.OPEN, null);
+        String url = "/api/tasks/" + created.getId();
+        patch(url, "0", "{\"status\":\"DONE\"}");
+        rest.delete(url);
+
+        TaskChangesResp first = rest.getForObject("/api/tasks/changes?since=0", TaskChangesResp.class);
+        assertThat(first.changes()).extracting(TaskChangeResp::op)
+                .containsExactly(TaskChange.Op.CREATED, TaskChange.Op.UPDATED, TaskChange.Op.DELETED);
+        assertThat(first.changes()).extracting(TaskChangeResp::taskId).containsOnly(created.getId());
+        assertThat(first.changes()).extracting(TaskChangeResp::version).containsExactly(0L, 1L, null);
+        assertThat(first.changes()).extracting(TaskChangeResp::seq).isSorted();
+        assertThat(first.next()).isEqualTo(first.changes().get(2).seq());
+        assertThat(first.hasNext()).isFalse();
+
+        TaskChangesResp limited = rest.getForObject("/api/tasks/changes?since=0&limit=2", TaskChangesResp.class);
+        assertThat(limited.changes()).hasSize(2);
+        assertThat(limited.hasNext()).isTrue();
+
+        TaskChangesResp none = rest.getForObject("/api/tasks/changes?since=" + first.next(), TaskChangesResp.class);
+        assertThat(none.changes()).isEmpty();
+        assertThat(none.next()).isEqualTo(first.next());
+    }
+
+    @Test
+    @DisplayName("正常系: GET /api/tasks/changes/stream は購読後にコミットされた変更をSSEで配信する")
+    void change_stream_pushes_committed_changes() throws Exception {
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest req = HttpRequest.newBuilder(URI.create(rest.getRootUri() + "/api/tasks/changes/stream"))
+                .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE).build();
+        HttpResponse<Stream<String>> res = http.send(req, HttpResponse.BodyHandlers.ofLines());
+        assertThat(res.statusCode()).isEqualTo(200);
+
+        try (Stream<String> lines = res.body()) {
+            CompletableFuture<List<String>> event = CompletableFuture.supplyAsync(() -> lines
+                    .takeWhile(l -> !l.startsWith("data:"))
+                    .filter(l -> l.startsWith("id:") || l.startsWith("event:"))
+                    .toList());
+            TaskResp created = createTask("Streamed", "", TaskStatus.OPEN, null);
+            TaskChangesResp log = rest.getForObject("/api/tasks/changes?since=0", TaskChangesResp.class);
+
+            assertThat(event.get(5, TimeUnit.SECONDS))
+                    .containsExactly("id:" + log.changes().get(0).seq(), "event:change");
+            assertThat(log.changes().get(0).taskId()).isEqualTo(created.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("正常系: SSE 購読は同時実行の枠を保持しないため、プール数を超えて購読中でも通常の API は待たされない")
+    void open_change_streams_do_not_hold_admission_permits() throws Exception {
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest req = HttpRequest.newBuilder(URI.create(rest.getRootUri() + "/api/tasks/changes/stream"))
+                .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE).build();
+        List<Stream<String>> streams = new ArrayList<>();
+        try {
+            // maximum-pool-size（10）より多く購読する
+            for (int i = 0; i < 12; i++) {
+                HttpResponse<Stream<String>> res = http.send(req, HttpResponse.BodyHandlers.ofLines());
+                assertThat(res.statusCode()).isEqualTo(200);
+                streams.add(res.body());
+            }
+            long started = System.nanoTime();
+            createTask("Admitted", "", TaskStatus.OPEN, null);
+            assertThat(rest.getForEntity("/api/tasks", String.class).getStatusCode().value()).isEqualTo(200);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(2000);
+        } finally {
+            streams.forEach(Stream::close);
+        }
+    }
+
+    @Test
+    @DisplayName("正常系: エクスポートは出力の完了で同時実行の枠を返すため、プール数を超えて続けても後続の API は待たされない")
+    void exports_release_admission_permits_when_the_stream_completes() {
+        createTask("Exported", "", TaskStatus.OPEN, null);
+        // maximum-pool-size（10）より多く続けて出力する
+        for (int i = 0; i < 12; i++) {
+            ResponseEntity<String> res = rest.getForEntity("/api/tasks/export", String.class);
+            assertThat(res.getStatusCode().value()).isEqualTo(200);
+            assertThat(res.getBody()).contains("Exported");
+        }
+        long started = System.nanoTime();
+        assertThat(rest.getForEntity("/api/tasks", String.class).getStatusCode().value()).isEqualTo(200);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(2000);
+    }
+
+    @Test
+    @DisplayName("正常系: GET /api/tasks/sync は初回に全件、以降はトークン以降の変更行と削除idのみ返す")
+    void sync_returns_snapshot_then_deltas_with_tombstones() {
+        TaskResp a = createTask("Sync A", "", TaskStatus.OPEN, null);
+        TaskResp b = createTask("Sync B", "", TaskStatus.OPEN, null);
+
+        TaskSyncBody first = rest.getForObject("/api/tasks/sync?size=1", TaskSyncBody.class);
+        assertThat(first.changed()).extracting(Task::getId).containsExactly(a.getId());
+        assertThat(first.hasMore()).isTrue();
+        TaskSyncBody rest1 = rest.getForObject("/api/tasks/sync?size=1&token=" + first.token(), TaskSyncBody.class);
+        assertThat(rest1.changed()).extracting(Task::getId).containsExactly(b.getId());
+        assertThat(rest1.hasMore()).isFalse();
+
+        patch("/api/tasks/" + a.getId(), "0", "{\"status\":\"DONE\"}");
+        rest.delete("/api/tasks/" + b.getId());
+        TaskResp c = createTask("Sync C", "", TaskStatus.OPEN, null);
+
+        TaskSyncBody delta = rest.getForObject("/api/tasks/sync?token=" + rest1.token(), TaskSyncBody.class);
+        assertThat(delta.changed()).extracting(Task::getId).containsExactly(a.getId(), c.getId());
+        assertThat(delta.changed().get(0).getVersion()).isEqualTo(1L);
+        assertThat(delta.changed().get(0).getStatus()).isEqualTo(TaskStatus.DONE);
+        assertThat(delta.deleted()).containsExactly(b.getId());
+
+        TaskSyncBody idle = rest.getForObject("/api/tasks/sync?token=" + delta.token(), TaskSyncBody.class);
+        assertThat(idle.changed()).isEmpty();
+        assertThat(idle.deleted()).isEmpty();
+        assertThat(idle.token()).isEqualTo(delta.token());
+
+        assertThat(rest.getForEntity("/api/tasks/sync?token=%%%", String.class).getStatusCode().value()).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("正常系: 一覧はh2cで配信され、gzip受付時は圧縮済みページのキャッシュから返す。更新後は新しい本文を返す")
+    void list_pages_are_gzipped_over_h2c_and_cached() throws Exception {
+        TaskResp first = createTask("Zip 0", "d".repeat(500), TaskStatus.OPEN, null);
+        for (int i = 1; i < 30; i++) createTask("Zip " + i, "d".repeat(500), TaskStatus.OPEN, null);
+
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+        HttpRequest req = HttpRequest.newBuilder(URI.create(rest.getRootUri() + "/api/tasks?size=30"))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip").build();
+        HttpResponse<byte[]> miss = http.send(req, HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(miss.version()).isEqualTo(HttpClient.Version.HTTP_2);
+        assertThat(miss.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        byte[] json = gunzip(miss.body());
+        assertThat(miss.body().length).isLessThan(json.length / 5);
+        assertThat(objectMapper.readTree(json).get("content")).hasSize(30);
+
+        double hits = meterRegistry.get("cache.gets").tags("cache", "task-page", "result", "hit").functionCounter().count();
+        HttpResponse<byte[]> hit = http.send(req, HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(hit.body()).isEqualTo(miss.body());
+        assertThat(hit.headers().firstValue(HttpHeaders.ETAG)).isEqualTo(miss.headers().firstValue(HttpHeaders.ETAG));
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "task-page", "result", "hit").functionCounter().count())
+                .isEqualTo(hits + 1);
+
+        // キャッシュにない本文は行だけを読み直し、件数はキー取得の COUNT（1回）を使う
+        patch("/api/tasks/" + first.getId(), "0", "{\"title\":\"Zip renamed\"}");
+        long counts = countExecutions();
+        HttpResponse<byte[]> changed = http.send(req, HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(countExecutions() - counts).isEqualTo(1);
+        assertThat(objectMapper.readTree(gunzip(changed.body())).get("total").asLong()).isEqualTo(30);
+        assertThat(changed.headers().firstValue(HttpHeaders.ETAG)).isNotEqualTo(miss.headers().firstValue(HttpHeaders.ETAG));
+        assertThat(new String(gunzip(changed.body()), StandardCharsets.UTF_8)).contains("Zip renamed");
+
+        // gzip を受け付けないクライアントには非圧縮、閾値未満の応答と export は Tomcat の応答圧縮に従う
+        HttpResponse<String> plain = http.send(HttpRequest.newBuilder(req.uri()).build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(plain.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+        HttpResponse<byte[]> small = http.send(HttpRequest.newBuilder(URI.create(rest.getRootUri() + "/api/tasks/summary"))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip").build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(small.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+        HttpResponse<byte[]> export = http.send(HttpRequest.newBuilder(URI.create(rest.getRootUri() + "/api/tasks/export"))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip").build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(export.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        assertThat(new String(gunzip(export.body()), StandardCharsets.UTF_8).lines()).hasSize(30);
+    }
+
+    private static byte[] gunzip(byte[] gz) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gz))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    @DisplayName("正常系: GET /api/tasks/summary は作成・更新・削除に追従したステータス別件数と期限切れ件数を返す")
+    void summary_follows_status_and_due_date_transitions() {
+        // 期限は過去日を指定できないため、翌日・翌々日を期限とし、期限切れは2日後時点の集計で確かめる
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        LocalDate later = tomorrow.plusDays(1);
+        TaskResp a = createTask("Sum A", "", TaskStatus.OPEN, tomorrow);
+        TaskResp b = createTask("Sum B", "", TaskStatus.DOING, tomorrow);
+        createTask("Sum C", "", TaskStatus.DONE, tomorrow);
+        TaskResp d = createTask("Sum D", "", TaskStatus.OPEN, null);
+
+        TaskSummaryResp before = rest.getForObject("/api/tasks/summary", TaskSummaryResp.class);
+        assertThat(before.byStatus()).containsEntry(TaskStatus.OPEN, 2L).containsEntry(TaskStatus.DOING, 1L)
+                .containsEntry(TaskStatus.DONE, 1L);
+        assertThat(before.total()).isEqualTo(4);
+        assertThat(before.overdue()).isZero();
+        assertThat(before.asOf()).isEqualTo(LocalDate.now());
+        assertThat(counters.summary(later).overdue()).isEqualTo(2);
+
+        patch("/api/tasks/" + a.getId(), "0", "{\"status\":\"DONE\"}");
+        rest.delete("/api/tasks/" + b.getId());
+        TaskUpdateReq req = new TaskUpdateReq();
+        req.setTitle("Sum D");
+        req.setStatus(TaskStatus.OPEN);
+        req.setDueDate(tomorrow);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch("0");
+        rest.exchange("/api/tasks/" + d.getId(), HttpMethod.PUT, new HttpEntity<>(req, headers), TaskResp.class);
+
+        TaskSummaryResp after = rest.getForObject("/api/tasks/summary", TaskSummaryResp.class);
+        assertThat(after.byStatus()).containsEntry(TaskStatus.OPEN, 1L).containsEntry(TaskStatus.DOING, 0L)
+                .containsEntry(TaskStatus.DONE, 2L);
+        assertThat(after.total()).isEqualTo(3);
+        assertThat(counters.summary(later).overdue()).isEqualTo(1);
+        // 差分の加算だけで数え直しと一致している
+        assertThat(counters.reconcile()).isZero();
+    }
+
+    @Test
+    @DisplayName("正常系: 件数カウンタの照合はSQLで直接投入された行とのずれを修復する")
+    @Sql(scripts = { "/testdata/clean.sql", "/testdata/task_seed.sql" }, config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void reconcile_repairs_counter_drift() {
+        assertThat(rest.getForObject("/api/tasks/summary", TaskSummaryResp.class).total()).isZero();
+
+        assertThat(counters.reconcile()).isEqualTo(4 + 3);
+
+        TaskSummaryResp summary = rest.getForObject("/api/tasks/summary", TaskSummaryResp.class);
+        assertThat(summary.byStatus()).containsEntry(TaskStatus.OPEN, 2L).containsEntry(TaskStatus.DOING, 1L)
+                .containsEntry(TaskStatus.DONE, 1L);
+        assertThat(summary.overdue()).isEqualTo(3);
+        assertThat(counters.reconcile()).isZero();
+    }
+
+    private ResponseEntity<TaskResp> patch(String url, String ifMatch, String json) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/merge-patch+json"));
+        headers.setIfMatch(ifMatch);
+        return rest.exchange(url, HttpMethod.PATCH, new HttpEntity<>(json, headers), TaskResp.class);
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.taskapp.it;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+
+import com.example.taskapp.dto.BatchResp;
+import com.example.taskapp.dto.ImportResp;
+import com.example.taskapp.dto.PageResponse;
+import com.example.taskapp.dto.TaskBatchCreateReq;
+import com.example.taskapp.dto.TaskBatchDeleteReq;
+import com.example.taskapp.dto.TaskBatchUpdateReq;
+import com.example.taskapp.dto.TaskChangeResp;
+import com.example.taskapp.dto.TaskChangesResp;
+import com.example.taskapp.dto.TaskCreateReq;
+import com.example.taskapp.dto.TaskResp;
+import com.example.taskapp.dto.TaskSummaryResp;
+import com.example.taskapp.model.TaskChange;
+import com.example.taskapp.model.TaskStatus;
+import com.example.taskapp.service.TaskArchiver;
+import com.example.taskapp.service.TaskCounters;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DisplayName("Task 一括API 統合テスト（TestRestTemplate＋H2実DB）")
+@Sql(scripts = "/testdata/clean.sql", config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class TaskBatchApiTest {
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    TaskCounters counters;
+
+    @Autowired
+    TaskArchiver archiver;
+
+    private static TaskCreateReq createReq(String title, TaskStatus status) {
+        TaskCreateReq req = new TaskCreateReq();
+        req.setTitle(title);
+        req.setStatus(status);
+        return req;
+    }
+
+    private List<TaskResp> createAll(String... titles) {
+        TaskBatchCreateReq req = new TaskBatchCreateReq();
+        List<TaskCreateReq> items = new ArrayList<>();
+        for (String t : titles) items.add(createReq(t, TaskStatus.OPEN));
+        req.setItems(items);
+        BatchResp res = rest.postForEntity("/api/tasks:batch", req, BatchResp.class).getBody();
+        assertThat(res).isNotNull();
+        return res.results().stream().map(BatchResp.Item::task).toList();
+    }
+
+    @Test
+    @DisplayName("正常系: POST /api/tasks:batch で項目ごとに201、不正な項目のみ400")
+    void batch_create_reports_per_item() {
+        TaskBatchCreateReq req = new TaskBatchCreateReq();
+        req.setItems(List.of(createReq("One", TaskStatus.OPEN), createReq("", TaskStatus.OPEN), createReq("Three", TaskStatus.DONE)));
+
+        ResponseEntity<BatchResp> res = rest.postForEntity("/api/tasks:batch", req, BatchResp.class);
+        assertThat(res.getStatusCode().value()).isEqualTo(200);
+        BatchResp body = res.getBody();
+        assertThat(body).isNotNull();
+        assertThat(body.succeeded()).isEqualTo(2);
+        assertThat(body.failed()).isEqualTo(1);
+        assertThat(body.results()).extracting(BatchResp.Item::status).containsExactly(201, 400, 201);
+        assertThat(body.results().get(0).task().getId()).isNotNull();
+        assertThat(body.results().get(0).task().getVersion()).isEqualTo(0L);
+        assertThat(body.results().get(1).message()).contains("title");
+
+        ResponseEntity<TaskResp> fetched = rest.getForEntity("/api/tasks/" + body.results().get(2).task().getId(), TaskResp.class);
+        assertThat(fetched.getStatusCode().value()).isEqualTo(200);
+        assertThat(fetched.getBody().getTitle()).isEqualTo("Three");
+    }
+
+    @Test
+    @DisplayName("正常系: POST /api/tasks:batchUpdate で成功は200・version+1、競合は409、対象なしは404。件数は成功分のみ移る")
+    void batch_update_reports_conflicts_individually() {
+        List<TaskResp> created = createAll("A", "B");
+
+        TaskBatchUpdateReq req = new TaskBatchUpdateReq();
+        req.setItems(List.of(
+                updateItem(created.get(0).getId(), 0L, "A2"),
+                updateItem(created.get(1).getId(), 5L, "B2"),
+                updateItem(999999L, 0L, "X")));
+
+        BatchResp body = rest.postForEntity("/api/tasks:batchUpdate", req, BatchResp.class).getBody();
+        assertThat(body).isNotNull();
+        assertThat(body.results()).extracting(BatchResp.Item::status).containsExactly(200, 409, 404);
+        assertThat(body.results().get(0).task().getVersion()).isEqualTo(1L);
+        assertThat(body.results().get(0).task().getTitle()).isEqualTo("A2");
+        assertThat(body.results().get(1).message()).contains("expected=5").contains("actual=0");
+        assertThat(body.succeeded()).isEqualTo(1);
+
+        TaskSummaryResp summary = rest.getForObject("/api/tasks/summary", TaskSummaryResp.class);
+        assertThat(summary.byStatus()).containsEntry(TaskStatus.OPEN, 1L).containsEntry(TaskStatus.DOING, 1L);
+        assertThat(counters.reconcile()).isZero();
+    }
+
+    @Test
+    @DisplayName("正常系: POST /api/tasks:batchDelete で削除は204、存在しないIDは404。成功分のみ変更ログに残る")
+    void batch_delete_reports_missing_ids() {
+        List<TaskResp> created = createAll("D1", "D2");
+
+        TaskBatchDeleteReq req = new TaskBatchDeleteReq();
+        req.setIds(List.of(created.get(0).getId(), 999999L, created.get(1).getId()));
+
+        BatchResp body = rest.postForEntity("/api/tasks:batchDelete", req, BatchResp.class).getBody();
+        assertThat(body).isNotNull();
+        assertThat(body.results()).extracting(BatchResp.Item::status).containsExactly(204, 404, 204);
+
+        ResponseEntity<TaskResp> gone = rest.getForEntity("/api/tasks/" + created.get(0).getId(), TaskResp.class);
+        assertThat(gone.getStatusCode().value()).isEqualTo(404);
+
+        TaskChangesResp changes = rest.getForObject("/api/tasks/changes?since=0", TaskChangesResp.class);
+        assertThat(changes.changes()).extracting(TaskChangeResp::op).containsExactly(
+                TaskChange.Op.CREATED, TaskChange.Op.CREATED, TaskChange.Op.DELETED, TaskChange.Op.DELETED);
+        assertThat(changes.changes()).extracting(TaskChangeResp::taskId).containsExactly(
+                created.get(0).getId(), created.get(1).getId(), created.get(0).getId(), created.get(1).getId());
+        assertThat(rest.getForObject("/api/tasks/summary", TaskSummaryResp.class).total()).isZero();
+        assertThat(counters.reconcile()).isZero();
+    }
+
+    @Test
+    @DisplayName("正常系: 退避済みのDONEも一覧・取得でき、一括更新・削除はtasksへ戻してから行う")
+    void batch_writes_restore_archived_tasks() {
+        TaskBatchCreateReq create = new TaskBatchCreateReq();
+        create.setItems(List.of(createReq("Old1", TaskStatus.DONE), createReq("Old2", TaskStatus.DONE),
+                createReq("Old3", TaskStatus.DONE), createReq("Hot", TaskStatus.OPEN)));
+        List<TaskResp> created = rest.postForEntity("/api/tasks:batch", create, BatchResp.class).getBody()
+                .results().stream().map(BatchResp.Item::task).toList();
+
+        assertThat(archiver.archive(Instant.now().plusSeconds(60))).isEqualTo(3);
+        assertThat(rest.getForObject("/api/tasks?size=10", PageResponse.class).total()).isEqualTo(4L);
+        assertThat(rest.getForObject("/api/tasks?status=OPEN", PageResponse.class).total()).isEqualTo(1L);
+        assertThat(rest.getForEntity("/api/tasks/" + created.get(2).getId(), TaskResp.class).getBody().getTitle())
+                .isEqualTo("Old3");
+
+        TaskBatchUpdateReq update = new TaskBatchUpdateReq();
+        update.setItems(List.of(updateItem(created.get(0).getId(), 0L, "Reopened"), updateItem(created.get(3).getId(), 0L, "Hot2")));
+        assertThat(rest.postForEntity("/api/tasks:batchUpdate", update, BatchResp.class).getBody().results())
+                .extracting(BatchResp.Item::status).containsExactly(200, 200);
+
+        TaskBatchDeleteReq delete = new TaskBatchDeleteReq();
+        delete.setIds(List.of(created.get(1).getId()));
+        assertThat(rest.postForEntity("/api/tasks:batchDelete", delete, BatchResp.class).getBody().results())
+                .extracting(BatchResp.Item::status).containsExactly(204);
+
+        assertThat(rest.getForObject("/api/tasks?status=DOING", PageResponse.class).total()).isEqualTo(2L);
+        assertThat(rest.getForObject("/api/tasks?status=DONE", PageResponse.class).total()).isEqualTo(1L);
+        assertThat(counters.reconcile()).isZero();
+    }
+
+    @Test
+    @DisplayName("正常系: POST /api/tasks/import（NDJSON）で妥当な行のみ登録し、不正な行は行番号付きで返す")
+    void import_ndjson_reports_line_errors() {
+        String body = """
+                {"title":"I1","status":"OPEN"}
+                {"title":"I2","status":"DONE","description":"d"}
+
+                {"title":
+                {"title":"","status":"OPEN"}
+                {"title":"I3","status":"DOING","id":123,"version":9}
+                """;
+        ImportResp res = importAs(body, "application/x-ndjson");
+        assertThat(res.processed()).isEqualTo(5);
+        assertThat(res.imported()).isEqualTo(3);
+        assertThat(res.failed()).isEqualTo(2);
+        assertThat(res.errors()).extracting(ImportResp.LineError::line).containsExactly(4L, 5L);
+        assertThat(res.errors().get(1).message()).contains("title");
+        assertThat(res.errorsTruncated()).isFalse();
+
+        PageResponse<?> page = rest.getForObject("/api/tasks?size=10", PageResponse.class);
+        assertThat(page.total()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("正常系: POST /api/tasks/import（CSV）はヘッダ名で列を対応付け、引用符内の改行・カンマを扱う")
+    void import_csv_handles_quoted_fields() {
+        String body = "id,title,description,status,dueDate\r\n"
+                + "1,\"Hello, \"\"CSV\"\"\",\"line1\nline2\",OPEN,\r\n"
+                + "2,Bad,,UNKNOWN,\r\n"
+                + "3,Plain,,DONE,2999-01-01\r\n";
+        ImportResp res = importAs(body, "text/csv");
+        assertThat(res.imported()).isEqualTo(2);
+        assertThat(res.failed()).isEqualTo(1);
+        // 2行目のレコードは改行を含むため、次のレコードは4行目
+        assertThat(res.errors()).extracting(ImportResp.LineError::line).containsExactly(4L);
+
+        PageResponse<TaskResp> page = rest.exchange("/api/tasks?q=CSV", HttpMethod.GET, null,
+                new ParameterizedTypeReference<PageResponse<TaskResp>>() {}).getBody();
+        assertThat(page.content()).hasSize(1);
+        assertThat(page.content().get(0).getTitle()).isEqualTo("Hello, \"CSV\"");
+        assertThat(page.content().get(0).getDescription()).isEqualTo("line1\nline2");
+    }
+
+    @Test
+    @DisplayName("異常系: POST /api/tasks/import は上限（taskapp.import.max-line-length）を超える行を400で拒否する")
+    void import_rejects_overlong_lines() {
+        String huge = "x".repeat(70_000);
+        String ndjson = "{\"title\":\"ok\",\"status\":\"OPEN\"}\n{\"title\":\"" + huge + "\",\"status\":\"OPEN\"}\n";
+        // 引用符内の改行を含むレコードも全体で数える
+        String csv = "title,status\r\nok,OPEN\r\n\"" + huge.replace("xxxxxxxxxx", "xxxxxxxxx\n") + "\",OPEN\r\n";
+
+        for (String[] c : new String[][] { { ndjson, "application/x-ndjson" }, { csv, "text/csv" } }) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.parseMediaType(c[1]));
+            ResponseEntity<String> res = rest.postForEntity("/api/tasks/import", new HttpEntity<>(c[0], headers), String.class);
+            assertThat(res.getStatusCode().value()).isEqualTo(400);
+            assertThat(res.getBody()).contains("長すぎます");
+        }
+    }
+
+    private ImportResp importAs(String body, String contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        ResponseEntity<ImportResp> res = rest.postForEntity("/api/tasks/import", new HttpEntity<>(body, headers), ImportResp.class);
+        assertThat(res.getStatusCode().value()).isEqualTo(200);
+        assertThat(res.getBody()).isNotNull();
+        return res.getBody();
+    }
+
+    private static TaskBatchUpdateReq.Item updateItem(Long id, Long version, String title) {
+        TaskBatchUpdateReq.Item item = new TaskBatchUpdateReq.Item();
+        item.setId(id);
+        item.setVersion(version);
+        item.setTitle(title);
+        item.setStatus(TaskStatus.DOING);
+        return item;
+    }
+}
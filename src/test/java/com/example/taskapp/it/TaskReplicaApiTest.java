@@ -0,0 +1,138 @@
+package com.example.taskapp.it;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.file.Path;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+
+import com.example.taskapp.datasource.ReplicaRouting;
+import com.example.taskapp.dto.TaskCreateReq;
+import com.example.taskapp.dto.TaskResp;
+import com.example.taskapp.model.TaskStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * プライマリとレプリカを別々のインメモリ H2 で構成し、複製は SCRIPT / RUNSCRIPT によるスナップショットの
+ * 丸ごと適用で模擬する（replicate() を呼ぶまでレプリカは遅れたまま）。
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:taskdb_primary;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "taskapp.replica.enabled=true",
+        "taskapp.replica.url=jdbc:h2:mem:taskdb_replica;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "taskapp.replica.lag-check-interval=1h",
+        "taskapp.replica.max-lag=1m",
+        "taskapp.cache.task.enabled=false" })
+@DisplayName("読み取りレプリカ振り分け 統合テスト（H2 2インスタンス）")
+@Sql(scripts = "/testdata/clean.sql", config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class TaskReplicaApiTest {
+
+    @Autowired
+    TestRestTemplate rest;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    DataSource primary;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    DataSource replica;
+
+    @Autowired
+    ReplicaRouting routing;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void syncReplica() {
+        replicate();
+    }
+
+    // プライマリの全体をレプリカへ写し、遅延を測り直す
+    private void replicate() {
+        String file = dir.resolve("snapshot.sql").toString().replace('\\', '/');
+        new JdbcTemplate(primary).execute("SCRIPT TO '" + file + "'");
+        JdbcTemplate r = new JdbcTemplate(replica);
+        r.execute("DROP ALL OBJECTS");
+        r.execute("RUNSCRIPT FROM '" + file + "'");
+        routing.probe();
+    }
+
+    private ResponseEntity<TaskResp> create(String title) {
+        TaskCreateReq req = new TaskCreateReq();
+        req.setTitle(title);
+        req.setStatus(TaskStatus.OPEN);
+        return rest.postForEntity("/api/tasks", req, TaskResp.class);
+    }
+
+    private JsonNode list(String seq) {
+        HttpHeaders headers = new HttpHeaders();
+        if (seq != null) headers.set("X-Task-Seq", seq);
+        return rest.exchange("/api/tasks", HttpMethod.GET, new HttpEntity<>(headers), JsonNode.class).getBody();
+    }
+
+    @Test
+    @DisplayName("正常系: 読み取りはレプリカから返し、X-Task-Seq を送ると反映前はプライマリから自分の書き込みを読める")
+    void reads_go_to_replica_and_token_reads_own_writes() {
+        assertThat(routing.isHealthy()).isTrue();
+        ResponseEntity<TaskResp> created = create("Replica A");
+        String seq = created.getHeaders().getFirst("X-Task-Seq");
+        assertThat(seq).isNotNull();
+        assertThat(Long.parseLong(seq)).isPositive();
+
+        // 未複製: トークンなしはレプリカ（まだない）、トークンありはプライマリ
+        assertThat(list(null).get("total").asLong()).isZero();
+        assertThat(list(seq).get("content").get(0).get("title").asText()).isEqualTo("Replica A");
+
+        replicate();
+        assertThat(list(null).get("total").asLong()).isEqualTo(1);
+        assertThat(list(seq).get("total").asLong()).isEqualTo(1);
+
+        // 書き込み・変更ログはレプリカの状態によらずプライマリ
+        assertThat(rest.getForEntity("/api/tasks/changes?since=0", JsonNode.class).getBody().get("changes")).hasSize(1);
+        assertThat(rest.exchange("/api/tasks", HttpMethod.GET, new HttpEntity<>(headerOf("x")), String.class)
+                .getStatusCode().value()).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("正常系: レプリカの遅延が max-lag を超える間・接続できない間は読み取りをプライマリへ送る")
+    void lagging_or_broken_replica_falls_back_to_primary() {
+        create("Lagging");
+        // 未複製の変更を1時間前のものにして遅延を超過させる
+        new JdbcTemplate(primary).update("UPDATE task_changes SET changed_at = DATEADD('HOUR', -1, changed_at)");
+        routing.probe();
+        assertThat(routing.isHealthy()).isFalse();
+        assertThat(list(null).get("total").asLong()).isEqualTo(1);
+
+        replicate();
+        assertThat(routing.isHealthy()).isTrue();
+
+        new JdbcTemplate(replica).execute("DROP ALL OBJECTS");
+        routing.probe();
+        assertThat(routing.isHealthy()).isFalse();
+        assertThat(list(null).get("total").asLong()).isEqualTo(1);
+    }
+
+    private static HttpHeaders headerOf(String seq) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Task-Seq", seq);
+        return headers;
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.taskapp.load;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.taskapp.TaskAppApplication;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TaskController の主要エンドポイントに対する負荷試験。
+ * プラットフォームスレッド（Tomcat 既定プール）と仮想スレッドでそれぞれアプリを起動し、
+ * 同じ同時接続数で GET /{id}・一覧・作成を混在させてスループットと p50/p99 を比較する。
+ * 結果の表はログに出力し、target/load-test-report.txt にも書き出す。
+ * 通常の test では実行せず、mvn -Pload-test verify で実行する。
+ * -Dload.concurrency（既定1000） -Dload.duration（秒、既定15） -Dload.warmup（秒、既定5）
+ */
+@Slf4j
+@DisplayName("負荷試験: プラットフォームスレッド vs 仮想スレッド（TaskController）")
+class TaskLoadIT {
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 1000);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.duration", 15));
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load.warmup", 5));
+    private static final int SEED_TASKS = 500;
+    private static final Path REPORT = Path.of("target", "load-test-report.txt");
+
+    @Test
+    @DisplayName("同一負荷で両モードを計測し、結果を表形式でログとレポートファイルに出力する")
+    void compare_platform_and_virtual_threads() throws Exception {
+        List<Result> results = List.of(run(false), run(true));
+
+        StringBuilder table = new StringBuilder(String.format("%-9s %11s %9s %8s %9s %9s %9s%n",
+                "mode", "requests", "req/s", "errors", "p50(ms)", "p99(ms)", "max(ms)"));
+        for (Result r : results) {
+            table.append(String.format("%-9s %11d %9.0f %8d %9.2f %9.2f %9.2f%n",
+                    r.mode(), r.requests(), r.throughput(), r.errors(), ms(r.p50()), ms(r.p99()), ms(r.max())));
+        }
+        Files.createDirectories(REPORT.getParent());
+        Files.writeString(REPORT, table);
+        log.info("concurrency={} duration={}s ({})\n{}", CONCURRENCY, DURATION.toSeconds(), REPORT, table);
+        assertThat(results).allSatisfy(r -> assertThat(r.requests()).isPositive());
+    }
+
+    private Result run(boolean virtual) throws Exception {
+        String mode = virtual ? "virtual" : "platform";
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(TaskAppApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN",
+                        "logging.level.com.example.taskapp.load=INFO")
+                .run();
+                ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            int port = ((WebServerApplicationContext) ctx).getWebServer().getPort();
+            Client client = new Client("http://localhost:" + port, clients);
+            long[] ids = client.seed(SEED_TASKS);
+
+            drive(client, ids, clients, WARMUP);
+            long started = System.nanoTime();
+            List<Recorder> recorders = drive(client, ids, clients, DURATION);
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            long errors = recorders.stream().mapToLong(r -> r.errors).sum();
+            long[] all = recorders.stream().flatMapToLong(r -> Arrays.stream(r.latencies, 0, r.count)).sorted().toArray();
+            return new Result(mode, all.length, errors, all.length / seconds,
+                    percentile(all, 0.50), percentile(all, 0.99), all.length == 0 ? 0 : all[all.length - 1]);
+        }
+    }
+
+    // CONCURRENCY 本のクライアントが応答を待ってから次を送る（クローズドモデル）
+    private List<Recorder> drive(Client client, long[] ids, ExecutorService clients, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Recorder>> futures = new ArrayList<>(CONCURRENCY);
+        for (int i = 0; i < CONCURRENCY; i++) {
+            futures.add(clients.submit(() -> {
+                Recorder rec = new Recorder();
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    int op = rnd.nextInt(100);
+                    long t0 = System.nanoTime();
+                    int status;
+                    if (op < 60) {
+                        status = client.get("/api/tasks/" + ids[rnd.nextInt(ids.length)]);
+                    } else if (op < 85) {
+                        status = client.get("/api/tasks?size=20&page=" + rnd.nextInt(10));
+                    } else {
+                        status = client.create("load-" + rnd.nextInt(1_000_000));
+                    }
+                    rec.record(System.nanoTime() - t0, status);
+                }
+                return rec;
+            }));
+        }
+        List<Recorder> recorders = new ArrayList<>(CONCURRENCY);
+        for (Future<Recorder> f : futures) recorders.add(f.get());
+        return recorders;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private record Result(String mode, long requests, long errors, double throughput, long p50, long p99, long max) {}
+
+    private static final class Recorder {
+        long[] latencies = new long[1024];
+        int count;
+        long errors;
+
+        void record(long nanos, int status) {
+            if (status < 200 || status >= 300) {
+                errors++;
+                return;
+            }
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = nanos;
+        }
+    }
+
+    private static final class Client {
+        private final String base;
+        private final HttpClient http;
+
+        Client(String base, ExecutorService executor) {
+            this.base = base;
+            this.http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(executor)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+        }
+
+        long[] seed(int n) throws Exception {
+            long[] ids = new long[n];
+            for (int i = 0; i < n; i++) {
+                HttpResponse<String> res = send(post("seed-" + i));
+                String body = res.body();
+                int at = body.indexOf("\"id\":") + 5;
+                ids[i] = Long.parseLong(body.substring(at, body.indexOf(',', at)).trim());
+            }
+            return ids;
+        }
+
+        int get(String path) {
+            return status(HttpRequest.newBuilder(URI.create(base + path)).GET().build());
+        }
+
+        int create(String title) {
+            return status(post(title));
+        }
+
+        private HttpRequest post(String title) {
+            String json = "{\"title\":\"" + title + "\",\"status\":\"OPEN\"}";
+            return HttpRequest.newBuilder(URI.create(base + "/api/tasks"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json))
+                    .build();
+        }
+
+        private int status(HttpRequest req) {
+            try {
+                return send(req).statusCode();
+            } catch (Exception e) {
+                return -1;
+            }
+        }
+
+        private HttpResponse<String> send(HttpRequest req) throws Exception {
+            return http.send(req, HttpResponse.BodyHandlers.ofString());
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.taskapp.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+
+import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskChange;
+import com.example.taskapp.model.TaskField;
+import com.example.taskapp.model.TaskPatch;
+import com.example.taskapp.model.TaskSearchCondition;
+import com.example.taskapp.model.TaskSort;
+import com.example.taskapp.model.TaskStatus;
+
+/**
+ * TaskMapper.xml の全ステートメントの実行計画（H2 の EXPLAIN）。
+ * 代表的なパラメータで SQL を組み立てて EXPLAIN し、全表走査（tableScan）になったら失敗させる。
+ * FINAL TABLE / OLD TABLE で包んだ文は内側の UPDATE / DELETE / MERGE も EXPLAIN する（外側の計画には現れないため）。
+ * ステートメントを追加したら CASES にパラメータを加えること（未登録のステートメントがあると失敗する）。
+ */
+@MybatisTest
+@DisplayName("TaskMapperの実行計画テスト（EXPLAIN、H2実DB）")
+@Sql(scripts = { "/db/migration/V1__init.sql", "/db/migration/V2__tasks_keyset_index.sql", "/db/migration/V3__task_terms.sql", "/db/migration/V4__task_changes.sql", "/db/vendor/h2/V5__task_counters.sql", "/db/migration/V6__tasks_archive.sql", "/db/migration/V7__tasks_status_created_at_index.sql", "/db/migration/V8__tasks_due_date_index.sql", "/testdata/task_seed.sql" }, config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/testdata/clean.sql", config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class TaskMapperPlanTest {
+
+    // 集約の直接参照（COUNT / MAX を索引から1行で求める）は全表走査ではない
+    private static final Pattern TABLE_SCAN = Pattern.compile("\\.tableScan \\*/(?!\\s*/\\* direct lookup \\*/)");
+    private static final Pattern DELTA_TABLE = Pattern.compile("(?:FINAL|OLD) TABLE \\(");
+
+    /**
+     * EXPLAIN するステートメントとパラメータ。fullScan は全表走査を許す理由（null は許さない）
+     */
+    record Case(String statement, Object param, String fullScan) {
+        Case(String statement, Object param) {
+            this(statement, param, null);
+        }
+    }
+
+    private static final Instant NOW = Instant.parse("2024-01-10T00:00:00Z");
+    private static final LocalDate TODAY = LocalDate.of(2024, 1, 10);
+    private static final Task TASK = Task.builder().id(1L).title("t").status(TaskStatus.OPEN)
+            .dueDate(LocalDate.of(2024, 1, 10)).version(0L).build();
+
+    private static final List<Case> CASES = List.of(
+            new Case("insert", TASK),
+            new Case("findById", 1L),
+            new Case("findProjectedById", params("id", 1L, "columns", TaskField.columns(TaskField.ALL))),
+            new Case("findVersionById", 1L),
+            new Case("findByIds", params("ids", List.of(1L, 2L))),
+            new Case("lockByIds", params("ids", List.of(1L, 2L))),
+            new Case("findAfterId", params("afterId", 0L, "limit", 100)),
+            new Case("search", condition().build()),
+            new Case("search", condition().status(TaskStatus.OPEN).build()),
+            new Case("search", condition().status(TaskStatus.OPEN).offset(40).build()),
+            new Case("search", condition().status(TaskStatus.DOING).afterCreatedAt(NOW).afterId(5L).build()),
+            new Case("search", condition().status(TaskStatus.DONE).build()),
+            new Case("search", condition().afterCreatedAt(NOW).afterId(5L).keysOnly(true).build()),
+            new Case("search", condition().status(TaskStatus.OPEN).q("foo").build()),
+            new Case("search", condition().terms(List.of("foo", "bar")).sort(TaskSort.RELEVANCE).build()),
+            new Case("search", condition().overdue(true).today(TODAY).sort(TaskSort.DUE_DATE).build()),
+            new Case("search", condition().dueFrom(TODAY).dueTo(TODAY.plusDays(7)).build()),
+            new Case("search", condition().status(TaskStatus.OPEN).sort(TaskSort.DUE_DATE).build()),
+            new Case("search", condition().status(TaskStatus.DONE).sort(TaskSort.UPDATED_AT).build()),
+            new Case("search", condition().status(TaskStatus.DONE).sort(TaskSort.DUE_DATE).build()),
+            new Case("search", condition().sort(TaskSort.DUE_DATE).build()),
+            new Case("search", condition().sort(TaskSort.UPDATED_AT).build()),
+            new Case("count", condition().build()),
+            new Case("count", condition().status(TaskStatus.OPEN).build()),
+            new Case("count", condition().status(TaskStatus.DONE).build()),
+            new Case("count", condition().terms(List.of("foo")).build()),
+            new Case("count", condition().overdue(true).today(TODAY).build()),
+            new Case("count", condition().dueFrom(TODAY).dueTo(TODAY.plusDays(7)).build()),
+            new Case("export", condition().build(), "条件なしのエクスポートは全行を読む"),
+            new Case("export", condition().status(TaskStatus.OPEN).build()),
+            new Case("export", condition().status(TaskStatus.DONE).build()),
+            new Case("export", condition().overdue(true).today(TODAY).build()),
+            new Case("updateWithOptimisticLock", TASK),
+            new Case("updateWithOptimisticLockReturning", TASK),
+            new Case("updateWithOptimisticLockReturningPrevious", TASK),
+            new Case("patchWithOptimisticLockReturning", params("id", 1L, "version", 0L, "patch", new TaskPatch().title("x"))),
+            new Case("deleteById", 1L),
+            new Case("deleteByIdReturning", 1L),
+            new Case("deleteArchivedByIdReturning", 1L),
+            new Case("lockArchivable", params("before", NOW, "limit", 500)),
+            new Case("archiveByIds", params("ids", List.of(1L, 2L))),
+            new Case("restoreArchived", params("ids", List.of(1L, 2L))),
+            new Case("insertTerms", params("taskId", 1L, "terms", Map.of("foo", 1))),
+            new Case("deleteTerms", params("taskId", 1L)),
+            new Case("deleteAllTerms", params()),
+            new Case("insertChange", new TaskChange(null, 1L, TaskChange.Op.CREATED, 0L, NOW)),
+            new Case("findChangesAfter", params("since", 0L, "upTo", 10L, "limit", 100)),
+            new Case("findMaxChangeSeq", params()),
+            new Case("addStatusCount", params("status", TaskStatus.OPEN, "slot", 0, "delta", 1L)),
+            new Case("addDueCount", params("dueDate", LocalDate.of(2024, 1, 10), "slot", 0, "delta", 1L)),
+            new Case("sumStatusCounts", params()),
+            new Case("sumDueCountsBefore", params("date", LocalDate.of(2024, 1, 10))),
+            new Case("sumDueCounts", params(), "照合: カウンタの全キーを読む（ロックは取らない）"),
+            new Case("lockStatusCounts", params("statuses", List.of("OPEN", "DONE"))),
+            new Case("lockDueCounts", params("dueDates", List.of(LocalDate.of(2024, 1, 10)))),
+            new Case("countByStatus", params()),
+            new Case("countOpenByDueDate", params()),
+            new Case("deleteEmptyDueCounts", params()));
+
+    @Autowired
+    SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Test
+    @DisplayName("全ステートメント: パラメータが登録されており、許可したもの以外は全表走査しない")
+    void no_statement_scans_a_whole_table() throws SQLException {
+        Configuration config = sqlSessionFactory.getConfiguration();
+        String prefix = TaskMapper.class.getName() + ".";
+        Set<String> statements = new TreeSet<>();
+        for (String name : config.getMappedStatementNames()) {
+            if (name.startsWith(prefix)) statements.add(name.substring(prefix.length()));
+        }
+        assertThat(CASES).extracting(Case::statement).containsAll(statements);
+
+        for (Case c : CASES) {
+            String plan = explain(c);
+            if (c.fullScan() == null) {
+                assertThat(TABLE_SCAN.matcher(plan).find())
+                        .as("%s %s: table scan%n%s", c.statement(), c.param(), plan).isFalse();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("PostgreSQL 用の構成: 全ステートメントが解決され、H2 固有の構文（FINAL / OLD TABLE、MERGE）を使わない")
+    void postgresql_statements_avoid_h2_syntax() throws IOException {
+        Configuration pg = new Configuration();
+        pg.setDatabaseId("postgresql");
+        String resource = "mapper/TaskMapper.xml";
+        try (InputStream in = Resources.getResourceAsStream(resource)) {
+            new XMLMapperBuilder(in, pg, resource, pg.getSqlFragments()).parse();
+        }
+        for (Case c : CASES) {
+            MappedStatement ms = pg.getMappedStatement(TaskMapper.class.getName() + "." + c.statement());
+            String sql = ms.getBoundSql(c.param()).getSql();
+            assertThat(sql).as(c.statement()).doesNotContainPattern(DELTA_TABLE).doesNotContain("MERGE");
+        }
+        assertThat(pg.getMappedStatement(TaskMapper.class.getName() + ".addStatusCount").getDatabaseId()).isEqualTo("postgresql");
+    }
+
+    @Test
+    @DisplayName("status 絞り込みの一覧・件数: (status, created_at, id) の複合索引で絞り込みと並び順を兼ねる")
+    void status_filtered_list_uses_composite_index() throws SQLException {
+        String page = explain(new Case("search", condition().status(TaskStatus.OPEN).offset(40).build()));
+        assertThat(page).contains("IDX_TASKS_STATUS_CREATED_AT_ID: STATUS = ?").contains("/* index sorted */");
+
+        String keyset = explain(new Case("search", condition().status(TaskStatus.DOING).afterCreatedAt(NOW).afterId(5L).build()));
+        assertThat(keyset).contains("IDX_TASKS_STATUS_CREATED_AT_ID: STATUS = ?").contains("/* index sorted */");
+
+        // 件数は status 先頭のどちらの索引でも範囲を数えるだけ（並び順は不要）
+        String done = explain(new Case("count", condition().status(TaskStatus.DONE).build()));
+        assertThat(done).containsPattern("PUBLIC\\.IDX_TASKS_STATUS_\\w+: STATUS = \\?")
+                .contains("IDX_TASKS_ARCHIVE_STATUS_CREATED_AT_ID: STATUS = ?");
+
+        // 条件なしの一覧は各表を (created_at, id) 索引の順に先頭 window 件だけ読む
+        String all = explain(new Case("search", condition().build()));
+        assertThat(all).contains("IDX_TASKS_CREATED_AT_ID").contains("IDX_TASKS_ARCHIVE_CREATED_AT_ID");
+    }
+
+    @Test
+    @DisplayName("期限日の絞り込み・並び順: (status, due_date, id) 索引の範囲だけを読み、並べ替えを省く")
+    void due_date_queries_use_status_due_date_index() throws SQLException {
+        // 期限切れは未完了の status ごとに due_date < today の範囲だけを読む
+        String overdue = explain(new Case("count", condition().overdue(true).today(TODAY).build()));
+        assertThat(overdue).containsPattern("IDX_TASKS_STATUS_DUE_DATE: STATUS IN\\(\\?\\d+, \\?\\d+\\)").contains("DUE_DATE <");
+
+        // status 指定なしの期限日範囲も全 status の IN で先頭列を束縛して範囲で引く
+        String range = explain(new Case("search", condition().dueFrom(TODAY).dueTo(TODAY.plusDays(7)).build()));
+        assertThat(range).containsPattern("IDX_TASKS_STATUS_DUE_DATE: DUE_DATE >= \\?\\d+\\s+AND STATUS IN\\(\\?\\d+, \\?\\d+, \\?\\d+\\)");
+
+        String byDue = explain(new Case("search", condition().status(TaskStatus.OPEN).sort(TaskSort.DUE_DATE).build()));
+        assertThat(byDue).contains("IDX_TASKS_STATUS_DUE_DATE: STATUS = ?").contains("/* index sorted */");
+
+        String byUpdated = explain(new Case("search", condition().status(TaskStatus.OPEN).sort(TaskSort.UPDATED_AT).build()));
+        assertThat(byUpdated).contains("IDX_TASKS_STATUS_UPDATED_AT_ID: STATUS = ?").contains("/* index sorted */");
+
+        // 照合の数え直しも未完了の行だけを読む
+        String recount = explain(new Case("countOpenByDueDate", params()));
+        assertThat(recount).contains("IDX_TASKS_STATUS_DUE_DATE");
+    }
+
+    // FINAL TABLE / OLD TABLE の内側の文の計画も連結して返す
+    private String explain(Case c) throws SQLException {
+        MappedStatement ms = sqlSessionFactory.getConfiguration().getMappedStatement(TaskMapper.class.getName() + "." + c.statement());
+        BoundSql bound = ms.getBoundSql(c.param());
+        String sql = bound.getSql();
+        StringBuilder plan = new StringBuilder(explain(ms, bound, c.param(), sql));
+        var delta = DELTA_TABLE.matcher(sql);
+        if (delta.find()) {
+            String inner = enclosed(sql, delta.end());
+            // パラメータは全て内側の文にある前提（位置で束縛するため）
+            assertThat(count(inner, '?')).as("%s: parameters outside the delta table", c.statement())
+                    .isEqualTo(count(sql, '?'));
+            plan.append('\n').append(explain(ms, bound, c.param(), inner));
+        }
+        return plan.toString();
+    }
+
+    private String explain(MappedStatement ms, BoundSql bound, Object param, String sql) throws SQLException {
+        Connection conn = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement ps = conn.prepareStatement("EXPLAIN " + sql)) {
+            new DefaultParameterHandler(ms, param, bound).setParameters(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(conn, dataSource);
+        }
+    }
+
+    // start の直前の '(' に対応する ')' までの中身
+    private static String enclosed(String sql, int start) {
+        int depth = 1;
+        for (int i = start; i < sql.length(); i++) {
+            char ch = sql.charAt(i);
+            if (ch == '(') depth++;
+            if (ch == ')' && --depth == 0) return sql.substring(start, i);
+        }
+        throw new IllegalArgumentException("unbalanced parentheses: " + sql);
+    }
+
+    private static long count(String s, char ch) {
+        return s.chars().filter(c -> c == ch).count();
+    }
+
+    private static TaskSearchCondition.TaskSearchConditionBuilder condition() {
+        return TaskSearchCondition.builder().size(20);
+    }
+
+    private static Map<String, Object> params(Object... keyValues) {
+        Map<String, Object> m = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) m.put((String) keyValues[i], keyValues[i + 1]);
+        return m;
+    }
+}
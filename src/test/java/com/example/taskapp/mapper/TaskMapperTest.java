@@ -2,9 +2,13 @@ package com.example.taskapp.mapper;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 
+import org.apache.ibatis.cursor.Cursor;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
@@ -13,11 +17,16 @@ import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.SqlConfig;
 
 import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskChange;
+import com.example.taskapp.model.TaskField;
+import com.example.taskapp.model.TaskSearchCondition;
+import com.example.taskapp.model.TaskSort;
 import com.example.taskapp.model.TaskStatus;
+import com.example.taskapp.service.TaskTextTokenizer;
 
 @MybatisTest
 @DisplayName("TaskMapperのMyBatisスライステスト（H2実DB）")
-@Sql(scripts = "/db/migration/V1__init.sql", config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = { "/db/migration/V1__init.sql", "/db/migration/V2__tasks_keyset_index.sql", "/db/migration/V3__task_terms.sql", "/db/migration/V4__task_changes.sql", "/db/vendor/h2/V5__task_counters.sql", "/db/migration/V6__tasks_archive.sql", "/db/migration/V7__tasks_status_created_at_index.sql", "/db/migration/V8__tasks_due_date_index.sql" }, config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
 @Sql(scripts = "/testdata/clean.sql", config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
 class TaskMapperTest {
 
@@ -47,28 +56,156 @@ class TaskMapperTest {
         assertThat(found.getUpdatedAt()).isNotNull();
     }
 
+    @Test
+    @DisplayName("findVersionById/keysOnly: versionのみ・キー列のみを取得できる")
+    @Sql(scripts = "/testdata/task_seed.sql", config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void find_version_and_keys_only() {
+        TaskSearchCondition keys = cond(TaskStatus.OPEN, "foo", 0, 10);
+        keys.setKeysOnly(true);
+        List<Task> rows = mapper.search(keys);
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).getId()).isNotNull();
+        assertThat(rows.get(0).getVersion()).isEqualTo(0L);
+        assertThat(rows.get(0).getCreatedAt()).isNotNull();
+        assertThat(rows.get(0).getTitle()).isNull();
+        assertThat(rows.get(0).getDescription()).isNull();
+
+        assertThat(mapper.findVersionById(rows.get(0).getId())).isEqualTo(0L);
+        assertThat(mapper.findVersionById(-1L)).isNull();
+    }
+
+    @Test
+    @DisplayName("search/findProjectedById: fields 指定時は指定列とキー列のみ SELECT する")
+    @Sql(scripts = "/testdata/task_seed.sql", config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void search_projects_selected_fields() {
+        TaskSearchCondition c = cond(TaskStatus.OPEN, "foo", 0, 10);
+        c.setFields(EnumSet.of(TaskField.TITLE, TaskField.STATUS));
+        List<Task> rows = mapper.search(c);
+        assertThat(rows).hasSize(2);
+        Task row = rows.get(0);
+        assertThat(row.getTitle()).isEqualTo("Another foo");
+        assertThat(row.getStatus()).isEqualTo(TaskStatus.OPEN);
+        assertThat(row.getId()).isNotNull();
+        assertThat(row.getVersion()).isEqualTo(0L);
+        assertThat(row.getCreatedAt()).isNotNull();
+        assertThat(row.getDescription()).isNull();
+        assertThat(row.getUpdatedAt()).isNull();
+
+        Task one = mapper.findProjectedById(row.getId(), TaskField.columns(EnumSet.of(TaskField.DUE_DATE)));
+        assertThat(one.getDueDate()).isNotNull();
+        assertThat(one.getTitle()).isNull();
+        assertThat(mapper.findProjectedById(-1L, TaskField.columns(TaskField.ALL))).isNull();
+    }
+
     @Test
     @DisplayName("search/count: status+キーワードの組合せとページングが機能する")
     @Sql(scripts = "/testdata/task_seed.sql", config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
     void search_with_filters_and_paging() {
-        List<Task> page1 = mapper.search(TaskStatus.OPEN, "foo", 0, 1);
+        List<Task> page1 = mapper.search(cond(TaskStatus.OPEN, "foo", 0, 1));
         assertThat(page1).hasSize(1);
         assertThat(page1.get(0).getTitle()).isEqualTo("Another foo"); // created_at DESC で新しい方
 
-        List<Task> page2 = mapper.search(TaskStatus.OPEN, "foo", 1, 1);
+        List<Task> page2 = mapper.search(cond(TaskStatus.OPEN, "foo", 1, 1));
         assertThat(page2).hasSize(1);
         assertThat(page2.get(0).getTitle()).isEqualTo("Alpha task");
 
-        long cnt = mapper.count(TaskStatus.OPEN, "foo");
+        long cnt = mapper.count(cond(TaskStatus.OPEN, "foo", 0, 0));
         assertThat(cnt).isEqualTo(2);
     }
 
+    @Test
+    @DisplayName("search/count: 期限日の範囲・期限切れで絞り込み、dueDate/updatedAt順に並べられる")
+    @Sql(scripts = "/testdata/task_seed.sql", config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void search_by_due_date_and_sort() {
+        mapper.insert(Task.builder().title("No due").status(TaskStatus.OPEN).build());
+
+        // 期限切れ: 未完了かつ due_date < today（DONE の 'Foo bar'、当日期限の 'Another foo' は含まない）
+        TaskSearchCondition overdue = TaskSearchCondition.builder().overdue(true).today(LocalDate.of(2024, 1, 8))
+                .sort(TaskSort.DUE_DATE).size(10).build();
+        assertThat(mapper.search(overdue)).extracting(Task::getTitle).containsExactly("Alpha task", "Bravo task");
+        assertThat(mapper.count(overdue)).isEqualTo(2);
+
+        // 範囲は両端を含み、status 指定なしなら DONE も含む
+        TaskSearchCondition range = TaskSearchCondition.builder().dueFrom(LocalDate.of(2024, 1, 6))
+                .dueTo(LocalDate.of(2024, 1, 7)).sort(TaskSort.DUE_DATE).size(10).build();
+        assertThat(mapper.search(range)).extracting(Task::getTitle).containsExactly("Bravo task", "Foo bar");
+        assertThat(mapper.count(range)).isEqualTo(2);
+
+        // 期限なしは最後
+        TaskSearchCondition byDue = TaskSearchCondition.builder().status(TaskStatus.OPEN).sort(TaskSort.DUE_DATE).size(10).build();
+        assertThat(mapper.search(byDue)).extracting(Task::getTitle).containsExactly("Alpha task", "Another foo", "No due");
+
+        // 項目指定でも並び順の列（status・updated_at）を読むため、両表を合わせて並べ直せる
+        TaskSearchCondition done = TaskSearchCondition.builder().status(TaskStatus.DONE).sort(TaskSort.UPDATED_AT)
+                .fields(EnumSet.of(TaskField.TITLE)).size(10).build();
+        assertThat(mapper.search(done)).extracting(Task::getTitle).containsExactly("Foo bar");
+
+        TaskSearchCondition byUpdated = TaskSearchCondition.builder().status(TaskStatus.OPEN).sort(TaskSort.UPDATED_AT).size(10).build();
+        assertThat(mapper.search(byUpdated)).extracting(Task::getTitle).containsExactly("No due", "Another foo", "Alpha task");
+    }
+
+    @Test
+    @DisplayName("searchAfter: (created_at, id) より前の行をキーセットで取得できる")
+    @Sql(scripts = "/testdata/task_seed.sql", config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void search_after_keyset() {
+        List<Task> first = mapper.search(cond(null, "", 0, 2));
+        assertThat(first).extracting(Task::getTitle).containsExactly("Another foo", "Foo bar");
+
+        Task last = first.get(1);
+        List<Task> next = mapper.search(after(cond(null, "", 0, 2), last));
+        assertThat(next).extracting(Task::getTitle).containsExactly("Bravo task", "Alpha task");
+
+        List<Task> filtered = mapper.search(after(cond(TaskStatus.OPEN, "foo", 0, 10), first.get(0)));
+        assertThat(filtered).extracting(Task::getTitle).containsExactly("Alpha task");
+    }
+
+    @Test
+    @DisplayName("insertTerms/search(terms): 全語を含む行のみ返し、RELEVANCE指定で出現回数順になる")
+    @Sql(scripts = "/testdata/task_seed.sql", config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void search_by_terms_and_relevance() {
+        List<Task> all = mapper.search(cond(null, "", 0, 10));
+        for (Task t : all) {
+            mapper.insertTerms(t.getId(), TaskTextTokenizer.termFrequencies(t.getTitle(), t.getDescription()));
+        }
+
+        TaskSearchCondition byTerms = TaskSearchCondition.builder().terms(List.of("foo")).size(10).build();
+        assertThat(mapper.search(byTerms)).extracting(Task::getTitle)
+                .containsExactly("Another foo", "Foo bar", "Alpha task");
+        assertThat(mapper.count(byTerms)).isEqualTo(3);
+
+        // 'Another foo'（foo×2）と 'Foo bar'（foo×2）が 'Alpha task'（foo×1）より先
+        byTerms.setSort(TaskSort.RELEVANCE);
+        List<Task> ranked = mapper.search(byTerms);
+        assertThat(ranked).extracting(Task::getTitle).last().isEqualTo("Alpha task");
+
+        TaskSearchCondition both = TaskSearchCondition.builder().terms(List.of("foo", "alpha")).size(10).build();
+        assertThat(mapper.search(both)).extracting(Task::getTitle).containsExactly("Alpha task");
+
+        Task alpha = mapper.search(both).get(0);
+        assertThat(mapper.deleteTerms(alpha.getId())).isGreaterThan(0);
+        assertThat(mapper.search(both)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("export: Cursorで条件に一致する全件をcreated_at DESCで逐次取得できる")
+    @Sql(scripts = "/testdata/task_seed.sql", config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void export_streams_with_cursor() throws Exception {
+        List<String> titles = new ArrayList<>();
+        try (Cursor<Task> cursor = mapper.export(cond(null, "foo", 0, 0))) {
+            for (Task t : cursor) {
+                titles.add(t.getTitle());
+            }
+            assertThat(cursor.isConsumed()).isTrue();
+        }
+        assertThat(titles).containsExactly("Another foo", "Foo bar", "Alpha task");
+    }
+
     @Test
     @DisplayName("updateWithOptimisticLock: 成功時はversion+1、競合時は0件更新")
     @Sql(scripts = "/testdata/task_seed.sql", config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
     void update_with_optimistic_lock_success_and_conflict() {
         // まず 'Alpha task' を検索して取得
-        List<Task> all = mapper.search(null, "Alpha", 0, 10);
+        List<Task> all = mapper.search(cond(null, "Alpha", 0, 10));
         assertThat(all).hasSize(1);
         Task alpha = all.get(0);
         assertThat(alpha.getVersion()).isEqualTo(0L);
@@ -90,6 +227,51 @@ class TaskMapperTest {
         assertThat(conflict).isEqualTo(0);
     }
 
+    @Test
+    @DisplayName("updateWithOptimisticLockReturning: 成功時は更新後の行、競合時はnull")
+    @Sql(scripts = "/testdata/task_seed.sql", config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void update_returning_success_and_conflict() {
+        Task alpha = mapper.search(cond(null, "Alpha", 0, 10)).get(0);
+
+        alpha.setTitle("Alpha returned");
+        alpha.setStatus(TaskStatus.DONE);
+        Task after = mapper.updateWithOptimisticLockReturning(alpha);
+        assertThat(after).isNotNull();
+        assertThat(after.getId()).isEqualTo(alpha.getId());
+        assertThat(after.getTitle()).isEqualTo("Alpha returned");
+        assertThat(after.getStatus()).isEqualTo(TaskStatus.DONE);
+        assertThat(after.getVersion()).isEqualTo(1L);
+        assertThat(after.getCreatedAt()).isEqualTo(alpha.getCreatedAt());
+        assertThat(after.getUpdatedAt()).isAfter(alpha.getUpdatedAt());
+
+        // 同一トランザクション内で同じ引数でも再実行される（キャッシュされない）ことを確認
+        Task conflict = mapper.updateWithOptimisticLockReturning(alpha);
+        assertThat(conflict).isNull();
+        assertThat(mapper.findById(alpha.getId()).getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("updateWithOptimisticLockReturningPrevious: 成功時は変更前の行（updated_atは今回の更新時刻）、競合時はnull")
+    @Sql(scripts = "/testdata/task_seed.sql", config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void update_returning_previous_success_and_conflict() {
+        Task alpha = mapper.search(cond(null, "Alpha", 0, 10)).get(0);
+
+        Task req = Task.builder().id(alpha.getId()).title("Alpha moved").status(TaskStatus.DONE)
+                .dueDate(alpha.getDueDate()).version(0L).build();
+        Task previous = mapper.updateWithOptimisticLockReturningPrevious(req);
+        assertThat(previous).isNotNull();
+        assertThat(previous.getTitle()).isEqualTo("Alpha task");
+        assertThat(previous.getStatus()).isEqualTo(TaskStatus.OPEN);
+        assertThat(previous.getVersion()).isEqualTo(0L);
+
+        Task stored = mapper.findById(alpha.getId());
+        assertThat(stored.getTitle()).isEqualTo("Alpha moved");
+        assertThat(stored.getVersion()).isEqualTo(1L);
+        assertThat(previous.getUpdatedAt()).isEqualTo(stored.getUpdatedAt());
+
+        assertThat(mapper.updateWithOptimisticLockReturningPrevious(req)).isNull();
+    }
+
     @Test
     @DisplayName("deleteById: 1件削除後に取得不可になる")
     void delete_by_id() {
@@ -105,5 +287,86 @@ class TaskMapperTest {
         assertThat(deleted).isEqualTo(1);
         assertThat(mapper.findById(t.getId())).isNull();
     }
-}
 
+    @Test
+    @DisplayName("deleteByIdReturning/deleteArchivedByIdReturning: 削除した行を返し、対象なしはnull")
+    void delete_returning_previous_row() {
+        Task t = Task.builder().title("Gone").status(TaskStatus.OPEN).dueDate(LocalDate.now()).build();
+        mapper.insert(t);
+
+        Task deleted = mapper.deleteByIdReturning(t.getId());
+        assertThat(deleted.getTitle()).isEqualTo("Gone");
+        assertThat(deleted.getStatus()).isEqualTo(TaskStatus.OPEN);
+        assertThat(mapper.findById(t.getId())).isNull();
+        assertThat(mapper.deleteByIdReturning(t.getId())).isNull();
+        assertThat(mapper.deleteArchivedByIdReturning(t.getId())).isNull();
+    }
+
+    @Test
+    @DisplayName("insertChange/findChangesAfter/findAfterId: 変更ログを seq 範囲で、行を id 順に取得できる")
+    @Sql(scripts = "/testdata/task_seed.sql", config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void change_log_and_id_keyset() {
+        List<TaskChange> written = new ArrayList<>();
+        for (TaskChange.Op op : TaskChange.Op.values()) {
+            TaskChange c = new TaskChange(null, 1L, op, op == TaskChange.Op.DELETED ? null : 0L, Instant.now());
+            mapper.insertChange(c);
+            assertThat(c.getSeq()).isNotNull();
+            written.add(c);
+        }
+        long first = written.get(0).getSeq();
+        assertThat(mapper.findMaxChangeSeq()).isEqualTo(written.get(2).getSeq());
+        assertThat(mapper.findChangesAfter(first, written.get(1).getSeq(), 10))
+                .extracting(TaskChange::getOp).containsExactly(TaskChange.Op.UPDATED);
+        assertThat(mapper.findChangesAfter(first - 1, Long.MAX_VALUE, 2)).hasSize(2);
+
+        List<Task> page = mapper.findAfterId(0, 2);
+        assertThat(page).hasSize(2);
+        assertThat(page.get(0).getId()).isLessThan(page.get(1).getId());
+        assertThat(mapper.findAfterId(page.get(1).getId(), 100)).allMatch(t -> t.getId() > page.get(1).getId());
+    }
+
+    @Test
+    @DisplayName("archiveByIds/restoreArchived: 退避したDONEは検索・主キー読み出しに残り、OPEN/DOINGの検索からは除かれ、戻すと更新できる")
+    @Sql(scripts = "/testdata/task_seed.sql", config = @SqlConfig(encoding = "UTF-8"), executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void archive_and_restore_done_tasks() {
+        List<Long> ids = mapper.lockArchivable(Instant.parse("2024-01-10T00:00:00Z"), 10);
+        assertThat(ids).hasSize(1);
+        Long done = ids.get(0);
+        assertThat(mapper.archiveByIds(ids)).isEqualTo(1);
+        assertThat(mapper.lockArchivable(Instant.parse("2024-01-10T00:00:00Z"), 10)).isEmpty();
+
+        // 両表を合わせて created_at DESC（OFFSET は合わせた後に適用される）
+        assertThat(mapper.search(cond(null, null, 0, 10))).extracting(Task::getTitle)
+                .containsExactly("Another foo", "Foo bar", "Bravo task", "Alpha task");
+        assertThat(mapper.search(cond(null, null, 1, 2))).extracting(Task::getTitle)
+                .containsExactly("Foo bar", "Bravo task");
+        assertThat(mapper.search(after(cond(null, null, 0, 10), mapper.findById(done)))).extracting(Task::getTitle)
+                .containsExactly("Bravo task", "Alpha task");
+        assertThat(mapper.count(cond(null, "foo", 0, 0))).isEqualTo(3);
+        assertThat(mapper.search(cond(TaskStatus.DONE, null, 0, 10))).extracting(Task::getId).containsExactly(done);
+        assertThat(mapper.count(cond(TaskStatus.OPEN, null, 0, 0))).isEqualTo(2);
+        assertThat(mapper.findByIds(ids)).hasSize(1);
+        assertThat(mapper.findAfterId(0, 10)).hasSize(4);
+        assertThat(mapper.findAfterId(0, 2)).extracting(Task::getTitle).containsExactly("Alpha task", "Bravo task");
+        assertThat(mapper.countByStatus()).filteredOn(c -> c.getBucket().equals("DONE"))
+                .extracting(c -> c.getCnt()).containsExactly(1L);
+
+        // 書き込みは tasks のみが対象
+        Task row = mapper.findById(done);
+        assertThat(mapper.updateWithOptimisticLock(row)).isZero();
+        assertThat(mapper.restoreArchived(ids)).isEqualTo(1);
+        assertThat(mapper.restoreArchived(ids)).isZero();
+        assertThat(mapper.updateWithOptimisticLock(row)).isEqualTo(1);
+        assertThat(mapper.findById(done).getVersion()).isEqualTo(1L);
+    }
+
+    private static TaskSearchCondition cond(TaskStatus status, String q, int offset, int size) {
+        return TaskSearchCondition.builder().status(status).q(q).offset(offset).size(size).build();
+    }
+
+    private static TaskSearchCondition after(TaskSearchCondition c, Task last) {
+        c.setAfterCreatedAt(last.getCreatedAt());
+        c.setAfterId(last.getId());
+        return c;
+    }
+}
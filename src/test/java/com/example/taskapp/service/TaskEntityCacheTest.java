@@ -0,0 +1,81 @@
+package com.example.taskapp.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.taskapp.model.Task;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("TaskEntityCacheのユニットテスト")
+class TaskEntityCacheTest {
+
+    private static Task task(long id, long version) {
+        return Task.builder().id(id).title("v" + version).version(version).build();
+    }
+
+    @Test
+    @DisplayName("古いversionの行は新しいversionのエントリを上書きしない")
+    void stale_version_never_overwrites_newer() {
+        TaskEntityCache cache = new TaskEntityCache(true, 100, Duration.ofSeconds(60), new SimpleMeterRegistry());
+        cache.put(task(1L, 2L));
+        cache.put(task(1L, 1L));
+
+        Task cached = cache.get(1L, id -> fail("should be served from cache"));
+        assertThat(cached.getVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("削除後は墓標によりnullを返し、削除前に読んだ行で復活しない")
+    void evicted_entry_is_tombstoned() {
+        TaskEntityCache cache = new TaskEntityCache(true, 100, Duration.ofSeconds(60), new SimpleMeterRegistry());
+        cache.put(task(1L, 0L));
+        cache.evict(1L);
+        cache.put(task(1L, 5L));
+
+        assertThat(cache.get(1L, id -> fail("should be served from cache"))).isNull();
+    }
+
+    @Test
+    @DisplayName("無効時は常にloaderを呼び、何も保持しない")
+    void disabled_cache_passes_through() {
+        TaskEntityCache cache = new TaskEntityCache(false, 100, Duration.ofSeconds(60), new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(1L, id -> { loads.incrementAndGet(); return task(id, 0L); });
+        cache.get(1L, id -> { loads.incrementAndGet(); return task(id, 0L); });
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("存在しないID（loaderがnull）はキャッシュしない")
+    void missing_rows_are_not_cached() {
+        TaskEntityCache cache = new TaskEntityCache(true, 100, Duration.ofSeconds(60), new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(9L, id -> { loads.incrementAndGet(); return null; });
+        cache.get(9L, id -> { loads.incrementAndGet(); return null; });
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.stats().missCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("ヒット・ミスの統計を cache.gets{cache=task.entity} として公開する")
+    void stats_are_exported_as_cache_metrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TaskEntityCache cache = new TaskEntityCache(true, 100, Duration.ofSeconds(60), registry);
+        cache.get(1L, id -> task(id, 0L));
+        cache.get(1L, id -> fail("should be served from cache"));
+
+        assertThat(registry.get("cache.gets").tags("cache", "task.entity", "result", "hit").functionCounter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.get("cache.gets").tags("cache", "task.entity", "result", "miss").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+}
@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
@@ -14,14 +15,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.example.taskapp.exception.BadRequestException;
 import com.example.taskapp.exception.NotFoundException;
 import com.example.taskapp.exception.OptimisticLockException;
 import com.example.taskapp.mapper.TaskMapper;
 import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskChange;
+import com.example.taskapp.model.TaskField;
+import com.example.taskapp.model.TaskPatch;
+import com.example.taskapp.model.TaskSearchCondition;
+import com.example.taskapp.model.TaskSort;
 import com.example.taskapp.model.TaskStatus;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 @DisplayName("TaskServiceのユニットテスト（Mockito）")
 class TaskServiceTest {
@@ -29,6 +39,32 @@ class TaskServiceTest {
     @Mock
     TaskMapper taskMapper;
 
+    @Spy
+    TaskCountCache countCache = new TaskCountCache(Duration.ofSeconds(5));
+
+    @Mock
+    TaskTextIndex textIndex;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    TaskEntityCache entityCache = new TaskEntityCache(true, 100, Duration.ofSeconds(60), meterRegistry);
+
+    @Spy
+    TaskMetrics metrics = new TaskMetrics(meterRegistry);
+
+    @Spy
+    TaskVersionHistory history = new TaskVersionHistory("none", true, 100, Duration.ofMinutes(5));
+
+    @Mock
+    TaskChangeLog changeLog;
+
+    @Mock
+    TaskCounters counters;
+
+    @Mock
+    TaskArchiver archiver;
+
     @InjectMocks
     TaskService service;
 
@@ -49,22 +85,13 @@ class TaskServiceTest {
             return 1;
         }).when(taskMapper).insert(any(Task.class));
 
-        Task persisted = Task.builder()
-                .id(1L)
-                .title("New Task")
-                .description("Desc")
-                .status(TaskStatus.OPEN)
-                .dueDate(input.getDueDate())
-                .version(0L)
-                .createdAt(Instant.now())
-                .updatedAt(Instant.now())
-                .build();
-        when(taskMapper.findById(1L)).thenReturn(persisted);
-
         Task result = service.create(input);
 
         assertThat(result.getId()).isEqualTo(1L);
         assertThat(result.getVersion()).isEqualTo(0L);
+        assertThat(result.getCreatedAt()).isEqualTo(result.getUpdatedAt());
+        // 登録後の再読込はしない（INSERT 1文のみ）
+        verify(taskMapper, never()).findById(any());
 
         ArgumentCaptor<Task> captor = ArgumentCaptor.forClass(Task.class);
         verify(taskMapper).insert(captor.capture());
@@ -103,7 +130,7 @@ class TaskServiceTest {
     }
 
     @Test
-    @DisplayName("正常系: updateでIf-Match一致なら更新されversionが+1の値を返す")
+    @DisplayName("正常系: updateでIf-Match一致なら更新されversionが+1の値を返す。変更前の行はUPDATE自体から得る")
     void update_success_increments_version() {
         long id = 1L;
         long ifMatch = 0L;
@@ -114,20 +141,29 @@ class TaskServiceTest {
                 .dueDate(LocalDate.now())
                 .build();
 
-        when(taskMapper.updateWithOptimisticLock(any(Task.class))).thenReturn(1);
-        Task after = Task.builder()
-                .id(id).title("Updated").description("U")
-                .status(TaskStatus.DOING).dueDate(req.getDueDate())
-                .version(1L)
-                .createdAt(Instant.now()).updatedAt(Instant.now())
+        Instant createdAt = Instant.parse("2024-01-01T00:00:00Z");
+        Instant writtenAt = Instant.now();
+        Task previous = Task.builder()
+                .id(id).title("Old").description("O")
+                .status(TaskStatus.OPEN).dueDate(null)
+                .version(0L)
+                .createdAt(createdAt).updatedAt(writtenAt)
                 .build();
-        when(taskMapper.findById(id)).thenReturn(after);
+        when(taskMapper.updateWithOptimisticLockReturningPrevious(any(Task.class))).thenReturn(previous);
 
         Task result = service.update(id, ifMatch, req);
         assertThat(result.getVersion()).isEqualTo(1L);
+        assertThat(result.getTitle()).isEqualTo("Updated");
+        assertThat(result.getStatus()).isEqualTo(TaskStatus.DOING);
+        assertThat(result.getCreatedAt()).isEqualTo(createdAt);
+        assertThat(result.getUpdatedAt()).isEqualTo(writtenAt);
+        // 更新前の行ロック・更新後の再読込はしない（UPDATE 1文のみ）
+        verify(taskMapper, never()).lockByIds(any());
+        verify(taskMapper, never()).findById(any());
+        verify(counters).apply(previous, result);
 
         ArgumentCaptor<Task> captor = ArgumentCaptor.forClass(Task.class);
-        verify(taskMapper).updateWithOptimisticLock(captor.capture());
+        verify(taskMapper).updateWithOptimisticLockReturningPrevious(captor.capture());
         Task arg = captor.getValue();
         assertThat(arg.getId()).isEqualTo(id);
         assertThat(arg.getVersion()).isEqualTo(ifMatch);
@@ -139,21 +175,67 @@ class TaskServiceTest {
     @DisplayName("異常系: updateでバージョン不一致はOptimisticLockException")
     void update_conflict_throws() {
         long id = 2L;
-        when(taskMapper.updateWithOptimisticLock(any(Task.class))).thenReturn(0);
-        when(taskMapper.findById(id)).thenReturn(Task.builder().id(id).version(5L).build());
+        when(taskMapper.updateWithOptimisticLockReturningPrevious(any(Task.class))).thenReturn(null);
+        when(taskMapper.findVersionById(id)).thenReturn(5L);
 
         Task req = Task.builder().title("x").status(TaskStatus.OPEN).build();
         assertThatThrownBy(() -> service.update(id, 4L, req))
                 .isInstanceOf(OptimisticLockException.class)
                 .hasMessageContaining("expected=4").hasMessageContaining("actual=5");
+        assertThat(meterRegistry.counter("taskapp.task.optimistic_lock.conflicts", "source", "single").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("正常系: patchは現在値と異なる項目だけを更新対象にする")
+    void patch_sends_only_changed_fields() {
+        long id = 4L;
+        Task current = Task.builder().id(id).title("Same").description("long").status(TaskStatus.OPEN).version(2L).build();
+        when(taskMapper.findById(id)).thenReturn(current);
+        Task after = Task.builder().id(id).title("Same").description("long").status(TaskStatus.DOING).version(3L).build();
+        when(taskMapper.patchWithOptimisticLockReturning(eq(id), eq(2L), any(TaskPatch.class))).thenReturn(after);
+
+        Task result = service.patch(id, 2L, new TaskPatch().title("Same").status(TaskStatus.DOING));
+
+        ArgumentCaptor<TaskPatch> captor = ArgumentCaptor.forClass(TaskPatch.class);
+        verify(taskMapper).patchWithOptimisticLockReturning(eq(id), eq(2L), captor.capture());
+        assertThat(captor.getValue().getFields()).containsExactly(TaskField.STATUS);
+        assertThat(result.getVersion()).isEqualTo(3L);
+        verify(textIndex, never()).replace(any(Task.class));
+    }
+
+    @Test
+    @DisplayName("正常系: patchで実質的な変更がなければ書き込まずversionもそのまま")
+    void patch_without_changes_skips_write() {
+        long id = 5L;
+        Task current = Task.builder().id(id).title("T").status(TaskStatus.DONE).version(7L).build();
+        when(taskMapper.findById(id)).thenReturn(current);
+        when(taskMapper.findVersionById(id)).thenReturn(7L);
+
+        Task result = service.patch(id, 7L, new TaskPatch().status(TaskStatus.DONE).description(null));
+
+        assertThat(result.getVersion()).isEqualTo(7L);
+        verify(taskMapper, never()).patchWithOptimisticLockReturning(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("異常系: patchの変更がなくても、キャッシュの行が古ければ（DBのversionが進んでいれば）OptimisticLockException")
+    void patch_without_changes_on_stale_cache_throws_conflict() {
+        long id = 6L;
+        entityCache.put(Task.builder().id(id).title("T").status(TaskStatus.DONE).version(7L).build());
+        when(taskMapper.findVersionById(id)).thenReturn(8L);
+
+        assertThatThrownBy(() -> service.patch(id, 7L, new TaskPatch().status(TaskStatus.DONE)))
+                .isInstanceOf(OptimisticLockException.class);
+        verify(taskMapper, never()).findById(anyLong());
+        verify(taskMapper, never()).patchWithOptimisticLockReturning(anyLong(), anyLong(), any());
     }
 
     @Test
     @DisplayName("異常系: update対象が存在しない場合はNotFoundException")
     void update_missing_throws_not_found() {
         long id = 3L;
-        when(taskMapper.updateWithOptimisticLock(any(Task.class))).thenReturn(0);
-        when(taskMapper.findById(id)).thenReturn(null);
+        when(taskMapper.updateWithOptimisticLockReturningPrevious(any(Task.class))).thenReturn(null);
+        when(taskMapper.findVersionById(id)).thenReturn(null);
 
         Task req = Task.builder().title("x").status(TaskStatus.OPEN).build();
         assertThatThrownBy(() -> service.update(id, 0L, req))
@@ -161,6 +243,28 @@ class TaskServiceTest {
                 .hasMessageContaining("3");
     }
 
+    @Test
+    @DisplayName("正常系: 退避済み（tasks_archive）のタスクはtasksへ戻してから更新し、削除は退避先から直接行う")
+    void writes_restore_archived_rows_first() {
+        long id = 9L;
+        Task archived = Task.builder().id(id).title("Old").status(TaskStatus.DONE).version(4L).build();
+        when(taskMapper.updateWithOptimisticLockReturningPrevious(any(Task.class))).thenReturn(null, archived);
+        when(archiver.restore(id)).thenReturn(true);
+
+        Task after = service.update(id, 4L, Task.builder().title("Reopened").status(TaskStatus.OPEN).build());
+
+        assertThat(after.getVersion()).isEqualTo(5L);
+        assertThat(after.getTitle()).isEqualTo("Reopened");
+        verify(taskMapper, times(2)).updateWithOptimisticLockReturningPrevious(any(Task.class));
+        verify(counters).apply(archived, after);
+
+        when(taskMapper.deleteArchivedByIdReturning(id)).thenReturn(after);
+        service.delete(id);
+        verify(counters).apply(after, null);
+        verify(textIndex).remove(id);
+        verify(archiver, times(1)).restore(id);
+    }
+
     @Test
     @DisplayName("異常系: updateにnullを渡すとIllegalArgumentException")
     void update_null_throws() {
@@ -171,15 +275,17 @@ class TaskServiceTest {
     @Test
     @DisplayName("正常系: deleteで1件削除できる")
     void delete_success() {
-        when(taskMapper.deleteById(7L)).thenReturn(1);
+        Task before = Task.builder().id(7L).title("t").status(TaskStatus.OPEN).version(0L).build();
+        when(taskMapper.deleteByIdReturning(7L)).thenReturn(before);
         service.delete(7L);
-        verify(taskMapper).deleteById(7L);
+        verify(counters).apply(before, null);
+        verify(taskMapper, never()).deleteArchivedByIdReturning(anyLong());
+        verify(taskMapper, never()).lockByIds(any());
     }
 
     @Test
     @DisplayName("異常系: delete対象なしでNotFoundException")
     void delete_missing_throws() {
-        when(taskMapper.deleteById(8L)).thenReturn(0);
         assertThatThrownBy(() -> service.delete(8L))
                 .isInstanceOf(NotFoundException.class);
     }
@@ -187,29 +293,257 @@ class TaskServiceTest {
     @Test
     @DisplayName("境界値: searchでpage<0とsize<=0はpage=0,size=20に補正")
     void search_normalizes_negative_page_and_zero_size() {
-        when(taskMapper.search(isNull(), eq("x"), eq(0), eq(20))).thenReturn(List.of());
-        when(taskMapper.count(isNull(), eq("x"))).thenReturn(0L);
+        when(taskMapper.search(eq(cond(null, "x", 0, 20)))).thenReturn(List.of());
+        when(taskMapper.count(eq(cond(null, "x", 0, 20)))).thenReturn(0L);
 
         PageResult<Task> result = service.search(null, "x", -1, 0);
         assertThat(result.page()).isEqualTo(0);
         assertThat(result.size()).isEqualTo(20);
         assertThat(result.total()).isEqualTo(0);
 
-        verify(taskMapper).search(isNull(), eq("x"), eq(0), eq(20));
-        verify(taskMapper).count(isNull(), eq("x"));
+        verify(taskMapper).search(eq(cond(null, "x", 0, 20)));
+        verify(taskMapper).count(eq(cond(null, "x", 0, 20)));
     }
 
     @Test
     @DisplayName("境界値: searchでsize上限は100、offsetはpage*size")
     void search_caps_size_to_100_and_computes_offset() {
-        when(taskMapper.search(eq(TaskStatus.OPEN), eq(""), eq(200), eq(100))).thenReturn(List.of());
-        when(taskMapper.count(eq(TaskStatus.OPEN), eq(""))).thenReturn(0L);
+        when(taskMapper.search(eq(cond(TaskStatus.OPEN, "", 200, 100)))).thenReturn(List.of());
+        when(taskMapper.count(eq(cond(TaskStatus.OPEN, "", 200, 100)))).thenReturn(0L);
 
         PageResult<Task> result = service.search(TaskStatus.OPEN, "", 2, 1000);
         assertThat(result.page()).isEqualTo(2);
         assertThat(result.size()).isEqualTo(100);
-        verify(taskMapper).search(eq(TaskStatus.OPEN), eq(""), eq(200), eq(100));
-        verify(taskMapper).count(eq(TaskStatus.OPEN), eq(""));
+        verify(taskMapper).search(eq(cond(TaskStatus.OPEN, "", 200, 100)));
+        verify(taskMapper).count(eq(cond(TaskStatus.OPEN, "", 200, 100)));
+    }
+
+    @Test
+    @DisplayName("正常系: searchAfterはsize+1件取得し、続きがあればnextCursorを返す")
+    void search_after_returns_next_cursor_when_more_rows() {
+        Instant base = Instant.parse("2024-01-01T10:00:00Z");
+        List<Task> rows = List.of(
+                Task.builder().id(3L).createdAt(base.plusSeconds(2)).build(),
+                Task.builder().id(2L).createdAt(base.plusSeconds(1)).build(),
+                Task.builder().id(1L).createdAt(base).build());
+        when(taskMapper.search(eq(cond(null, "", 0, 3)))).thenReturn(rows);
+
+        CursorPageResult<Task> result = service.searchAfter(filter(null, ""), "", 2);
+        assertThat(result.content()).extracting(Task::getId).containsExactly(3L, 2L);
+        assertThat(result.nextCursor()).isNotNull();
+
+        TaskCursor decoded = TaskCursor.decode(result.nextCursor());
+        assertThat(decoded.id()).isEqualTo(2L);
+        assertThat(decoded.createdAt()).isEqualTo(base.plusSeconds(1));
+    }
+
+    @Test
+    @DisplayName("正常系: searchAfterで最終ページはnextCursorがnull、カーソル値が条件に渡る")
+    void search_after_last_page_has_no_cursor() {
+        Instant at = Instant.parse("2024-01-02T10:00:00Z");
+        String cursor = new TaskCursor(at, 5L).encode();
+        TaskSearchCondition expected = cond(TaskStatus.OPEN, "q", 0, 21);
+        expected.setAfterCreatedAt(at);
+        expected.setAfterId(5L);
+        when(taskMapper.search(eq(expected)))
+                .thenReturn(List.of(Task.builder().id(4L).createdAt(at).build()));
+
+        CursorPageResult<Task> result = service.searchAfter(filter(TaskStatus.OPEN, "q"), cursor, 20);
+        assertThat(result.content()).hasSize(1);
+        assertThat(result.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("異常系: searchAfterで不正なカーソルはBadRequestException")
+    void search_after_invalid_cursor_throws() {
+        assertThatThrownBy(() -> service.searchAfter(filter(null, ""), "not-a-cursor", 20))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    @DisplayName("正常系: search(total=none)はCOUNTを実行せずsize+1件でhasNextを判定")
+    void search_total_none_skips_count() {
+        List<Task> rows = List.of(Task.builder().id(3L).build(), Task.builder().id(2L).build(), Task.builder().id(1L).build());
+        when(taskMapper.search(eq(cond(null, "", 0, 3)))).thenReturn(rows);
+
+        PageResult<Task> result = service.search(filter(null, ""), 0, 2, TotalMode.NONE);
+        assertThat(result.content()).extracting(Task::getId).containsExactly(3L, 2L);
+        assertThat(result.hasNext()).isTrue();
+        assertThat(result.total()).isNull();
+        assertThat(result.totalMode()).isEqualTo(TotalMode.NONE);
+        verify(taskMapper, never()).count(any());
     }
-}
 
+    @Test
+    @DisplayName("正常系: search(total=estimate)はTTL内ならCOUNTをキャッシュから返す")
+    void search_total_estimate_uses_cached_count() {
+        when(taskMapper.search(eq(cond(TaskStatus.OPEN, "x", 0, 21)))).thenReturn(List.of());
+        when(taskMapper.count(eq(cond(TaskStatus.OPEN, "x", 0, 21)))).thenReturn(42L);
+
+        PageResult<Task> first = service.search(filter(TaskStatus.OPEN, "x"), 0, 20, TotalMode.ESTIMATE);
+        PageResult<Task> second = service.search(filter(TaskStatus.OPEN, "x"), 0, 20, TotalMode.ESTIMATE);
+
+        assertThat(first.total()).isEqualTo(42L);
+        assertThat(second.total()).isEqualTo(42L);
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.totalMode()).isEqualTo(TotalMode.ESTIMATE);
+        verify(taskMapper, times(1)).count(eq(cond(TaskStatus.OPEN, "x", 0, 21)));
+    }
+
+    @Test
+    @DisplayName("正常系: search(total=exact)はoffset+件数<totalでhasNext=true")
+    void search_total_exact_sets_has_next_from_total() {
+        when(taskMapper.search(eq(cond(null, "", 0, 1)))).thenReturn(List.of(Task.builder().id(1L).build()));
+        when(taskMapper.count(eq(cond(null, "", 0, 1)))).thenReturn(2L);
+
+        PageResult<Task> result = service.search(filter(null, ""), 0, 1, TotalMode.EXACT);
+        assertThat(result.total()).isEqualTo(2L);
+        assertThat(result.hasNext()).isTrue();
+        assertThat(result.totalMode()).isEqualTo(TotalMode.EXACT);
+    }
+
+    @Test
+    @DisplayName("異常系: TotalMode.fromで未知の値はBadRequestException")
+    void total_mode_from_rejects_unknown() {
+        assertThat(TotalMode.from("estimate")).isEqualTo(TotalMode.ESTIMATE);
+        assertThatThrownBy(() -> TotalMode.from("approx"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    @DisplayName("正常系: 転置インデックス有効時はqを語に分解しterms検索、RELEVANCEも渡る")
+    void search_uses_terms_when_text_index_enabled() {
+        when(textIndex.isEnabled()).thenReturn(true);
+        TaskSearchCondition expected = TaskSearchCondition.builder()
+                .terms(List.of("foo", "bar")).sort(TaskSort.RELEVANCE).offset(0).size(20).build();
+        when(taskMapper.search(eq(expected))).thenReturn(List.of());
+        when(taskMapper.count(eq(expected))).thenReturn(0L);
+
+        TaskSearchCondition filter = TaskSearchCondition.builder().q("Foo, bar foo").sort(TaskSort.RELEVANCE).build();
+        service.search(filter, 0, 20, TotalMode.EXACT);
+
+        verify(taskMapper).search(eq(expected));
+    }
+
+    @Test
+    @DisplayName("正常系: create/updateで転置インデックスを更新する")
+    void create_and_update_maintain_text_index() {
+        doAnswer(inv -> {
+            Task arg = inv.getArgument(0);
+            arg.setId(1L);
+            return 1;
+        }).when(taskMapper).insert(any(Task.class));
+        Task updated = Task.builder().id(1L).title("t2").version(1L).build();
+        when(taskMapper.updateWithOptimisticLockReturning(any(Task.class))).thenReturn(updated);
+
+        Task created = service.create(Task.builder().title("t").status(TaskStatus.OPEN).build());
+        service.update(1L, 0L, Task.builder().title("t2").status(TaskStatus.OPEN).build());
+
+        verify(textIndex).add(created);
+        verify(textIndex).replace(updated);
+    }
+
+    @Test
+    @DisplayName("正常系: create/update/deleteで変更ログに変更後のversionを記録し、競合時は記録しない")
+    void writes_record_change_log() {
+        doAnswer(inv -> {
+            Task arg = inv.getArgument(0);
+            arg.setId(1L);
+            return 1;
+        }).when(taskMapper).insert(any(Task.class));
+        when(taskMapper.updateWithOptimisticLockReturning(any(Task.class)))
+                .thenReturn(Task.builder().id(1L).title("t2").version(1L).build())
+                .thenReturn(null);
+        when(taskMapper.findVersionById(1L)).thenReturn(1L);
+        when(taskMapper.deleteByIdReturning(1L)).thenReturn(Task.builder().id(1L).title("t2").version(1L).build());
+
+        service.create(Task.builder().title("t").status(TaskStatus.OPEN).build());
+        service.update(1L, 0L, Task.builder().title("t2").status(TaskStatus.OPEN).build());
+        assertThatThrownBy(() -> service.update(1L, 0L, Task.builder().title("t3").status(TaskStatus.OPEN).build()))
+                .isInstanceOf(OptimisticLockException.class);
+        service.delete(1L);
+
+        var inOrder = inOrder(changeLog);
+        inOrder.verify(changeLog).record(TaskChange.Op.CREATED, 1L, 0L);
+        inOrder.verify(changeLog).record(TaskChange.Op.UPDATED, 1L, 1L);
+        inOrder.verify(changeLog).record(TaskChange.Op.DELETED, 1L, null);
+        verifyNoMoreInteractions(changeLog);
+    }
+
+    @Test
+    @DisplayName("正常系: 件数カウンタへ変更前後の行を渡す。updateはIf-Matchのversionがキャッシュにあれば行ロックで読まない")
+    void writes_apply_counter_transitions() {
+        Task v0 = Task.builder().id(13L).title("t").status(TaskStatus.OPEN).version(0L).build();
+        Task v1 = Task.builder().id(13L).title("t").status(TaskStatus.DONE).version(1L).build();
+        when(taskMapper.findById(13L)).thenReturn(v0);
+        when(taskMapper.updateWithOptimisticLockReturning(any(Task.class))).thenReturn(v1);
+        when(taskMapper.deleteByIdReturning(13L)).thenReturn(v1);
+
+        service.get(13L);
+        service.update(13L, 0L, Task.builder().title("t").status(TaskStatus.DONE).build());
+        verify(counters).apply(v0, v1);
+        verify(taskMapper, never()).lockByIds(any());
+
+        service.delete(13L);
+        verify(counters).apply(v1, null);
+        verify(counters, never()).markDirty();
+    }
+
+    @Test
+    @DisplayName("正常系: getは2回目以降キャッシュから返し、findByIdは1回のみ")
+    void get_uses_entity_cache() {
+        Task t = Task.builder().id(11L).title("T").version(0L).build();
+        when(taskMapper.findById(11L)).thenReturn(t);
+
+        assertThat(service.get(11L)).isSameAs(t);
+        assertThat(service.get(11L)).isSameAs(t);
+        verify(taskMapper, times(1)).findById(11L);
+        assertThat(entityCache.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("正常系: update後のgetは新versionをキャッシュから返す／delete後はNotFound")
+    void update_and_delete_refresh_entity_cache() {
+        Task v0 = Task.builder().id(12L).title("old").version(0L).build();
+        Task v1 = Task.builder().id(12L).title("new").version(1L).build();
+        when(taskMapper.findById(12L)).thenReturn(v0);
+        when(taskMapper.updateWithOptimisticLockReturning(any(Task.class))).thenReturn(v1);
+        when(taskMapper.deleteByIdReturning(12L)).thenReturn(v1);
+
+        assertThat(service.get(12L).getVersion()).isEqualTo(0L);
+        service.update(12L, 0L, Task.builder().title("new").status(TaskStatus.OPEN).build());
+        assertThat(service.get(12L).getVersion()).isEqualTo(1L);
+
+        service.delete(12L);
+        assertThatThrownBy(() -> service.get(12L)).isInstanceOf(NotFoundException.class);
+        verify(taskMapper, times(1)).findById(12L);
+    }
+
+    @Test
+    @DisplayName("正常系: getVersionはキャッシュ済みならDBを読まず、未キャッシュならSELECT versionのみ")
+    void get_version_uses_cache_then_version_query() {
+        when(taskMapper.findVersionById(20L)).thenReturn(3L);
+        assertThat(service.getVersion(20L)).isEqualTo(3L);
+        verify(taskMapper, never()).findById(anyLong());
+
+        when(taskMapper.findById(21L)).thenReturn(Task.builder().id(21L).version(7L).build());
+        service.get(21L);
+        assertThat(service.getVersion(21L)).isEqualTo(7L);
+        verify(taskMapper, never()).findVersionById(21L);
+    }
+
+    @Test
+    @DisplayName("異常系: getVersionで存在しないIDはNotFoundException")
+    void get_version_not_found_throws() {
+        when(taskMapper.findVersionById(404L)).thenReturn(null);
+        assertThatThrownBy(() -> service.getVersion(404L)).isInstanceOf(NotFoundException.class);
+    }
+
+    private static TaskSearchCondition filter(TaskStatus status, String q) {
+        return TaskSearchCondition.builder().status(status).q(q).build();
+    }
+
+    private static TaskSearchCondition cond(TaskStatus status, String q, int offset, int size) {
+        return TaskSearchCondition.builder().status(status).q(q).offset(offset).size(size).build();
+    }
+}
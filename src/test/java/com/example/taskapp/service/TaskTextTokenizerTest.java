@@ -0,0 +1,35 @@
+package com.example.taskapp.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("TaskTextTokenizerのユニットテスト")
+class TaskTextTokenizerTest {
+
+    @Test
+    @DisplayName("英数字は小文字化して語単位、記号で区切る")
+    void tokenizes_latin_words() {
+        assertThat(TaskTextTokenizer.tokenize("Fix BUG-42, then deploy!"))
+                .containsExactly("fix", "bug", "42", "then", "deploy");
+    }
+
+    @Test
+    @DisplayName("漢字・かなはバイグラム、全角英数はNFKCで半角化")
+    void tokenizes_cjk_as_bigrams() {
+        assertThat(TaskTextTokenizer.tokenize("買い物ＡＢＣ"))
+                .containsExactly("買い", "い物", "abc");
+        assertThat(TaskTextTokenizer.tokenize("猫")).containsExactly("猫");
+    }
+
+    @Test
+    @DisplayName("queryTermsは重複除去、termFrequenciesは複数テキストの出現回数を合算")
+    void query_terms_and_frequencies() {
+        assertThat(TaskTextTokenizer.queryTerms("foo Foo bar")).containsExactly("foo", "bar");
+        assertThat(TaskTextTokenizer.termFrequencies("foo bar", "foo", null))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("foo", 2, "bar", 1));
+    }
+}
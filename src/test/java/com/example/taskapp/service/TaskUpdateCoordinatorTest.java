@@ -0,0 +1,97 @@
+package com.example.taskapp.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.taskapp.exception.OptimisticLockException;
+import com.example.taskapp.mapper.TaskMapper;
+import com.example.taskapp.model.Task;
+import com.example.taskapp.model.TaskStatus;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TaskUpdateCoordinatorのユニットテスト（競合制御・マージ）")
+class TaskUpdateCoordinatorTest {
+
+    @Mock
+    TaskService taskService;
+
+    @Mock
+    TaskMapper taskMapper;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TaskUpdateCoordinator coordinator(String mode, TaskVersionHistory history) {
+        return new TaskUpdateCoordinator(taskService, taskMapper, history, new TaskMetrics(meterRegistry),
+                mode, 16, 3, Duration.ofSeconds(1));
+    }
+
+    private static TaskVersionHistory history(String mode) {
+        return new TaskVersionHistory(mode, true, 100, Duration.ofMinutes(5));
+    }
+
+    private static Task row(long version, String title, TaskStatus status) {
+        return Task.builder().id(1L).title(title).description("d").status(status).version(version).build();
+    }
+
+    @Test
+    @DisplayName("正常系: 競合しても変更項目が重ならなければ最新行にマージして再試行する")
+    void disjoint_changes_are_merged_and_retried() {
+        TaskVersionHistory history = history("striped");
+        history.record(row(1, "A", TaskStatus.OPEN));
+        Task current = row(2, "B", TaskStatus.OPEN); // 並行更新で title のみ変更済み
+        Task client = row(1, "A", TaskStatus.DONE);  // クライアントは status のみ変更
+
+        when(taskService.update(eq(1L), eq(1L), any())).thenThrow(new OptimisticLockException("conflict"));
+        when(taskMapper.findById(1L)).thenReturn(current);
+        when(taskService.update(eq(1L), eq(2L), any())).thenAnswer(inv -> {
+            Task t = inv.getArgument(2);
+            t.setVersion(3L);
+            return t;
+        });
+
+        Task result = coordinator("striped", history).update(1L, 1L, client);
+
+        ArgumentCaptor<Task> merged = ArgumentCaptor.forClass(Task.class);
+        verify(taskService).update(eq(1L), eq(2L), merged.capture());
+        assertThat(merged.getValue().getTitle()).isEqualTo("B");
+        assertThat(merged.getValue().getStatus()).isEqualTo(TaskStatus.DONE);
+        assertThat(result.getVersion()).isEqualTo(3L);
+        assertThat(meterRegistry.counter("taskapp.task.contention.merged").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("異常系: 同じ項目が並行して別の値に変わっていれば409のまま")
+    void overlapping_changes_still_conflict() {
+        TaskVersionHistory history = history("striped");
+        history.record(row(1, "A", TaskStatus.OPEN));
+        when(taskService.update(eq(1L), eq(1L), any())).thenThrow(new OptimisticLockException("conflict"));
+        when(taskMapper.findById(1L)).thenReturn(row(2, "A", TaskStatus.DOING));
+
+        assertThatThrownBy(() -> coordinator("striped", history).update(1L, 1L, row(1, "A", TaskStatus.DONE)))
+                .isInstanceOf(OptimisticLockException.class);
+        verify(taskService, times(1)).update(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("正常系: mode=none では TaskService.update をそのまま呼び、再試行しない")
+    void mode_none_delegates_without_retry() {
+        when(taskService.update(eq(1L), eq(1L), any())).thenThrow(new OptimisticLockException("conflict"));
+
+        assertThatThrownBy(() -> coordinator("none", history("none")).update(1L, 1L, row(1, "A", TaskStatus.DONE)))
+                .isInstanceOf(OptimisticLockException.class);
+        verify(taskService, times(1)).update(anyLong(), anyLong(), any());
+        verifyNoInteractions(taskMapper);
+    }
+}
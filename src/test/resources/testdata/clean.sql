@@ -1,3 +1,7 @@
 -- Clean up tasks after each test
 DELETE FROM tasks;
-
+DELETE FROM tasks_archive;
+DELETE FROM task_terms;
+DELETE FROM task_changes;
+DELETE FROM task_status_counts;
+DELETE FROM task_due_counts;